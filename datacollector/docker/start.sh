@@ -1,6 +1,6 @@
 #!/usr/bin/env bash
 
-# Initialize needed databases and tables if not already exist
+# Create the database if not already exist, tables are created and upgraded by the application at startup
 while ! mysqladmin ping -u$DATABASE_USERNAME -p$DATABASE_PASSWORD -h$DATABASE_HOST --silent; do
     echo "$DATABASE_HOST not up, wait"
     sleep 1
@@ -14,8 +14,10 @@
 
 package org.onap.rapp.datacollector;
 
+import org.onap.rapp.datacollector.service.configuration.AggregationProperties;
 import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
 import org.onap.rapp.datacollector.service.configuration.DmaapProperties;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -24,7 +26,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties({DmaapProperties.class, DatabaseProperties.class})
+@EnableConfigurationProperties({DmaapProperties.class, DatabaseProperties.class, IngestProperties.class,
+        AggregationProperties.class})
 @EnableTransactionManagement
 public class DataCollectorApplication {
     public static void main(String[] args) {
@@ -13,32 +13,73 @@
 
 package org.onap.rapp.datacollector.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.SlotWindow;
 import org.onap.rapp.datacollector.entity.pm.AggregatedPM;
+import org.onap.rapp.datacollector.entity.pm.ColumnarAggregatedPM;
+import org.onap.rapp.datacollector.entity.pm.ColumnarPMData;
+import org.onap.rapp.datacollector.entity.pm.PMData;
+import org.onap.rapp.datacollector.service.AggregatedCells;
 import org.onap.rapp.datacollector.service.PMService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Controller("pmController")
 @Api(tags = {"RESTful APIs for DataCollector (current is PM DataCollector) R-APP mS"})
 public class PMController {
 
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    /**
+     * Encodings of aggregatedmetrics in the order of preference, JSON is used when the client accepts any of them.
+     */
+    private static final List<MediaType> PM_MEDIA_TYPES =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
     private final PMService pmService;
+    private final Map<MediaType, ObjectMapper> objectMappers;
 
-    public PMController(PMService pmService) {
+    public PMController(PMService pmService, ObjectMapper objectMapper, Jackson2ObjectMapperBuilder mapperBuilder) {
         this.pmService = pmService;
+        this.objectMappers = Map.of(
+                MediaType.APPLICATION_JSON, objectMapper,
+                MediaType.APPLICATION_CBOR, mapperBuilder.factory(new CBORFactory()).build(),
+                APPLICATION_SMILE, mapperBuilder.factory(new SmileFactory()).build());
     }
 
     @ApiOperation(value = "Get the latest aggregated pm ves events from database.",
@@ -46,12 +87,13 @@ public class PMController {
                     + "startTime and now, together with the itemsLength "
                     + "(i.e., total items in the returned pm array, i.e., active cells count)",
             httpMethod = "GET",
-            produces = "application/json",
+            produces = MediaType.APPLICATION_JSON_VALUE + ", " + MediaType.APPLICATION_CBOR_VALUE + ", "
+                    + APPLICATION_SMILE_VALUE,
             response = AggregatedPM.class
     )
-    @GetMapping(value = "/v1/pm/events/aggregatedmetrics")
-    public @ResponseBody
-    AggregatedPM retrievePMData(
+    @GetMapping(value = "/v1/pm/events/aggregatedmetrics",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> retrievePMData(
             @ApiParam(value = "aggregation period (in seconds) for which an average performance "
                     + "metrics are calculated", required = true) @RequestParam("slot") int slot,
             @ApiParam(value = "number of aggregated performance metrics that should be returned by the method, "
@@ -60,11 +102,172 @@ public class PMController {
             @ApiParam(value = "ISO 8601 time format as string (e.g., 2020-10-26T06:52:54.01+00:00) for which aggregated "
                     + "performance metrics are calculated with the pm ves data starting from startTime. "
                     + "\"+\" and \".\" signs must be properly encoded in url",
-                    required = true) @RequestParam("startTime") String startTime) {
+                    required = true) @RequestParam("startTime") String startTime,
+            @ApiParam(value = "identifiers of the cells to return, all cells when not set")
+            @RequestParam(value = "cellIds", required = false) List<String> cellIds,
+            @ApiParam(value = "metrics to return (latency, throughput), all metrics when not set")
+            @RequestParam(value = "metrics", required = false) List<String> metrics,
+            @ApiParam(value = "application/json (default), application/cbor or application/x-jackson-smile")
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept) {
         OffsetDateTime time = getOffsetDateTime(startTime);
-        logger.debug("Getting {} aggregated metrics for {} second slot, start time {}", count, slot, startTime);
+        MeasurementFilter filter = getMeasurementFilter(cellIds, metrics);
+        MediaType mediaType = getMediaType(accept);
+        logger.debug("Getting {} aggregated metrics for {} second slot, start time {} as {}", count, slot, startTime,
+                mediaType);
+
+        ObjectMapper mapper = objectMappers.get(mediaType);
+        AggregatedCells cells = pmService.readAggregatedPMDataForTimeInterval(slot, count, time, filter);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(outputStream -> writeAggregatedPM(mapper, outputStream, cells, FieldWriter.NONE,
+                        Function.identity()));
+    }
+
+    @ApiOperation(value = "Get the latest aggregated pm ves events from database in columnar layout.",
+            notes = "Returns the same aggregated metrics as v1, with one array per metric and cell holding one value "
+                    + "per slot (null for slots without measurements), together with the start of the first slot, "
+                    + "the slot width in seconds, the number of slots and the cursor. With since set to the cursor of "
+                    + "the previous response only the slots which completed or changed since then are returned",
+            httpMethod = "GET",
+            produces = MediaType.APPLICATION_JSON_VALUE + ", " + MediaType.APPLICATION_CBOR_VALUE + ", "
+                    + APPLICATION_SMILE_VALUE,
+            response = ColumnarAggregatedPM.class
+    )
+    @GetMapping(value = "/v2/pm/events/aggregatedmetrics",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> retrieveColumnarPMData(
+            @ApiParam(value = "aggregation period (in seconds) for which an average performance "
+                    + "metrics are calculated", required = true) @RequestParam("slot") int slot,
+            @ApiParam(value = "number of slots, i.e. length of every metric array", required = true)
+            @RequestParam("count") int count,
+            @ApiParam(value = "ISO 8601 time format as string (e.g., 2020-10-26T06:52:54.01+00:00) for which aggregated "
+                    + "performance metrics are calculated with the pm ves data starting from startTime. "
+                    + "\"+\" and \".\" signs must be properly encoded in url. Required unless since is set")
+            @RequestParam(value = "startTime", required = false) String startTime,
+            @ApiParam(value = "cursor of a previous response, only the slots from the cursor up to now are returned, "
+                    + "at most count slots")
+            @RequestParam(value = "since", required = false) String since,
+            @ApiParam(value = "identifiers of the cells to return, all cells when not set")
+            @RequestParam(value = "cellIds", required = false) List<String> cellIds,
+            @ApiParam(value = "metrics to return (latency, throughput), all metrics when not set")
+            @RequestParam(value = "metrics", required = false) List<String> metrics,
+            @ApiParam(value = "application/json (default), application/cbor or application/x-jackson-smile")
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept) {
+        SlotWindow window = getSlotWindow(slot, count, startTime, since);
+        MeasurementFilter filter = getMeasurementFilter(cellIds, metrics);
+        MediaType mediaType = getMediaType(accept);
+        logger.debug("Getting {} columnar aggregated metrics for {} second slot, start time {} as {}", window.getCount(),
+                slot, window.getStartTime(), mediaType);
+
+        ObjectMapper mapper = objectMappers.get(mediaType);
+        AggregatedCells cells = pmService.readAggregatedPMDataForTimeInterval(slot, window.getCount(),
+                window.getStartTime(), filter);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(outputStream -> writeAggregatedPM(mapper, outputStream, cells,
+                        generator -> {
+                            generator.writeStringField("slotStart", window.getStartTime().toString());
+                            generator.writeNumberField("slotWidth", slot);
+                            generator.writeNumberField("slotCount", window.getCount());
+                            generator.writeStringField("cursor", window.getCursor().toString());
+                        }, pmData -> ColumnarPMData.of(pmData, filter)));
+    }
+
+    /**
+     * Writes the response of aggregatedmetrics while the cells are aggregated, the cells are neither collected nor
+     * serialized into one buffer. The header fields come first, then the pm array and itemsLength, so the response
+     * has the fields of {@link AggregatedPM} or {@link ColumnarAggregatedPM}. The measurements are read before the
+     * response is committed, if the response fails later on the document is left unterminated, so the client can
+     * tell it from a complete one.
+     *
+     * @param cells cells of the window, aggregated while they are written
+     * @param header writes the fields before the cells
+     * @param cellView representation of the cell in the response
+     */
+    private void writeAggregatedPM(ObjectMapper mapper, OutputStream outputStream, AggregatedCells cells,
+            FieldWriter header, Function<PMData, ?> cellView) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            generator.writeStartObject();
+            header.write(generator);
+            generator.writeArrayFieldStart("pm");
+            AtomicInteger itemsLength = new AtomicInteger();
+            cells.forEach(pmData -> {
+                try {
+                    generator.writeObject(cellView.apply(pmData));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                itemsLength.incrementAndGet();
+            });
+            generator.writeEndArray();
+            generator.writeNumberField("itemsLength", itemsLength.get());
+            generator.writeEndObject();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Aggregated metrics response aborted, the response is incomplete", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Streamed responses are rejected while all response writers are busy and their queue is full
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void handleRejectedResponse(TaskRejectedException e) {
+        logger.warn("Aggregated metrics rejected, all response writers are busy: {}", e.getMessage());
+    }
+
+    /**
+     * Picks the encoding of the response, the most specific and preferred accepted type wins. The request mapping has
+     * already rejected Accept headers without any producible type.
+     */
+    private MediaType getMediaType(String accept) {
+        List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        return acceptedTypes.stream()
+                .flatMap(accepted -> PM_MEDIA_TYPES.stream().filter(accepted::includes))
+                .findFirst()
+                .orElse(MediaType.APPLICATION_JSON);
+    }
+
+    private SlotWindow getSlotWindow(int slot, int count, String startTime, String since) {
+        if (slot <= 0 || count <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Slot and count must be positive.");
+        }
+        if (since != null) {
+            return pmService.getWindowSince(slot, count, getOffsetDateTime(since));
+        }
+        if (startTime == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either startTime or since is required.");
+        }
+        return pmService.getWindow(slot, count, getOffsetDateTime(startTime));
+    }
+
+    /**
+     * Cells and metrics to return, an empty list is taken as not set
+     */
+    private MeasurementFilter getMeasurementFilter(List<String> cellIds, List<String> metrics) {
+        if (metrics != null && !PMService.METRICS.containsAll(metrics)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown metric, supported metrics are "
+                    + PMService.METRICS);
+        }
+        return MeasurementFilter.builder()
+                .cellIds(toSet(cellIds))
+                .metrics(toSet(metrics))
+                .build();
+    }
+
+    private static Set<String> toSet(List<String> values) {
+        return values == null || values.isEmpty() ? null : new HashSet<>(values);
+    }
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        FieldWriter NONE = generator -> {
+        };
 
-        return pmService.getAggregatedPMDataForTimeInterval(slot, count, time);
+        void write(JsonGenerator generator) throws IOException;
     }
 
     private OffsetDateTime getOffsetDateTime(String startTime) {
@@ -22,4 +22,6 @@ public class DataAggregationInfo {
     int slot;
     long startTime;
     long endTime;
+    @Builder.Default
+    MeasurementFilter filter = MeasurementFilter.ALL;
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.entity;
+
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Cells and metrics a request asks for, null stands for all cells or all metrics
+ */
+@Builder
+@Getter
+public class MeasurementFilter {
+
+    public static final MeasurementFilter ALL = MeasurementFilter.builder().build();
+
+    Set<String> cellIds;
+    Set<String> metrics;
+
+    public boolean acceptsCell(String cellId) {
+        return cellIds == null || cellIds.contains(cellId);
+    }
+
+    public boolean acceptsMetric(String metric) {
+        return metrics == null || metrics.contains(metric);
+    }
+
+    public boolean isAll() {
+        return cellIds == null && metrics == null;
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.entity;
+
+import java.time.OffsetDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Slots of an aggregatedmetrics response and the cursor to ask for the following slots with. Slots from the cursor on
+ * were not completed yet, so they may still change and are returned again.
+ */
+@Getter
+@AllArgsConstructor
+public class SlotWindow {
+    OffsetDateTime startTime;
+    int count;
+    OffsetDateTime cursor;
+}
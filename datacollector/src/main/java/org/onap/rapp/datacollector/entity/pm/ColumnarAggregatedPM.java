@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.entity.pm;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated metrics in the columnar layout of the v2 API. Slot i of every cell covers
+ * (slotStart + i * slotWidth, slotStart + (i + 1) * slotWidth]. Slots from the cursor on may still change, passing
+ * the cursor as since returns them again together with the newer slots.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ColumnarAggregatedPM {
+    String slotStart;
+    int slotWidth;
+    int slotCount;
+    String cursor;
+    List<ColumnarPMData> pm;
+    int itemsLength;
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.entity.pm;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+
+/**
+ * Aggregated metrics of one cell in the columnar layout of the v2 API, one array per metric with one value per slot.
+ * Empty slots hold {@link #EMPTY_SLOT} and are written as null, metrics which were not requested have no array and
+ * are left out.
+ */
+@Getter
+@AllArgsConstructor
+@JsonSerialize(using = ColumnarPMData.Serializer.class)
+public class ColumnarPMData {
+
+    public static final int EMPTY_SLOT = Integer.MIN_VALUE;
+    public static final String LATENCY = "latency";
+    public static final String THROUGHPUT = "throughput";
+
+    String cellId;
+    int[] latency;
+    int[] throughput;
+
+    public static ColumnarPMData of(PMData pmData, MeasurementFilter filter) {
+        List<PerformanceData> performance = pmData.getPerformance();
+        int[] latency = filter.acceptsMetric(LATENCY) ? new int[performance.size()] : null;
+        int[] throughput = filter.acceptsMetric(THROUGHPUT) ? new int[performance.size()] : null;
+        for (int i = 0; i < performance.size(); i++) {
+            if (latency != null) {
+                latency[i] = toSlotValue(performance.get(i).getLatency());
+            }
+            if (throughput != null) {
+                throughput[i] = toSlotValue(performance.get(i).getThroughput());
+            }
+        }
+        return new ColumnarPMData(pmData.getCellId(), latency, throughput);
+    }
+
+    private static int toSlotValue(Integer value) {
+        return value == null ? EMPTY_SLOT : value;
+    }
+
+    public static class Serializer extends StdSerializer<ColumnarPMData> {
+
+        private static final long serialVersionUID = 1L;
+
+        public Serializer() {
+            super(ColumnarPMData.class);
+        }
+
+        @Override
+        public void serialize(ColumnarPMData value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("cellId", value.getCellId());
+            writeSlots(generator, LATENCY, value.getLatency());
+            writeSlots(generator, THROUGHPUT, value.getThroughput());
+            generator.writeEndObject();
+        }
+
+        private static void writeSlots(JsonGenerator generator, String metric, int[] values) throws IOException {
+            if (values == null) {
+                return;
+            }
+            generator.writeArrayFieldStart(metric);
+            for (int value : values) {
+                if (value == EMPTY_SLOT) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+}
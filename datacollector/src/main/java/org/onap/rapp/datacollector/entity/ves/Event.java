@@ -17,8 +17,10 @@ package org.onap.rapp.datacollector.entity.ves;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Embedded;
 import org.springframework.data.relational.core.mapping.Table;
@@ -30,11 +32,30 @@ import org.springframework.data.relational.core.mapping.Table;
 @Getter
 public class Event {
     @Id
+    @Setter
     Long id;
 
     @Column("rawdata")
     public volatile String raw;
 
+    @Column("payload_id")
+    public volatile Long payloadId;
+
+    @Transient
+    public volatile RawPayload payload;
+
+    @Column("cell_id")
+    public volatile String cellId;
+
+    @Column("latency")
+    public volatile Integer latency;
+
+    @Column("throughput")
+    public volatile Integer throughput;
+
+    @Column("typed")
+    public volatile boolean typed;
+
     @Embedded(onEmpty = Embedded.OnEmpty.USE_NULL)
     public final CommonEventHeader commonEventHeader;
 
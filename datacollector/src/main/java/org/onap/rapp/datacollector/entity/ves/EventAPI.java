@@ -14,6 +14,7 @@
 
 package org.onap.rapp.datacollector.entity.ves;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -43,4 +44,15 @@ public class EventAPI {
     private String rawdata;
 
     private Long lastEpochMicrosec;
+
+    private Long payloadId;
+
+    private String cellId;
+
+    private Integer latency;
+
+    private Integer throughput;
+
+    @JsonIgnore
+    private boolean typed;
 }
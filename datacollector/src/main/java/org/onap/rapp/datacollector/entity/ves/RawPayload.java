@@ -16,6 +16,7 @@ package org.onap.rapp.datacollector.entity.ves;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
 @ToString
@@ -23,8 +24,11 @@ import org.springframework.data.relational.core.mapping.Table;
 @Table("payload")
 public class RawPayload {
     @Id
-    public final Long eventId;
+    public Long eventId;
     public final String payload;
+    /** Time of the newest event referring to the payload, the payload is kept as long as that event */
+    @Column("last_epoch_microsec")
+    public volatile long lastEpochMicrosec;
 
     private RawPayload(Long eventId, String payload) {
         this.eventId = eventId;
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.util.function.Consumer;
+import org.onap.rapp.datacollector.entity.pm.PMData;
+
+/**
+ * Cells of a window whose measurements are already read, every cell is aggregated only when it is passed on, so the
+ * aggregated cells need not be collected. The cells can be passed on once.
+ */
+@FunctionalInterface
+public interface AggregatedCells {
+
+    /**
+     * Aggregates the cells and passes every cell to the consumer once it is aggregated, in the order of cell identifiers
+     *
+     * @param consumer consumer of the aggregated data of every cell
+     */
+    void forEach(Consumer<PMData> consumer);
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.onap.rapp.datacollector.entity.pm.PerformanceData;
+import org.onap.rapp.datacollector.service.configuration.AggregationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-cell aggregates of completed, epoch-aligned slots. A slot is completed once its end is older than the settle
+ * time, so no late event is expected to change it. The cache is bounded by the number of cached cell aggregates,
+ * an empty slot counts as one, and the least recently used slots are evicted first.
+ */
+@Component
+public class AggregatedSlotCache {
+
+    private final AggregationProperties.SlotCache config;
+    private final LongSupplier clock;
+    private final Counter hits;
+    private final Counter misses;
+    private final LinkedHashMap<SlotKey, SortedMap<String, PerformanceData>> slots = new LinkedHashMap<>(16, 0.75f, true);
+    private int entries;
+
+    @Autowired
+    public AggregatedSlotCache(AggregationProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    AggregatedSlotCache(AggregationProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.config = properties.getSlotCache();
+        this.clock = clock;
+        this.hits = Counter.builder("ves.aggregation.slot.cache").tag("result", "hit")
+                .description("Slots answered from the aggregated slot cache").register(meterRegistry);
+        this.misses = Counter.builder("ves.aggregation.slot.cache").tag("result", "miss")
+                .description("Slots aggregated because they were not cached").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * @param slotLength slot length in microseconds
+     * @param slotStart slot start in microseconds
+     * @return aggregates by cell in the order of cell identifiers, empty if the slot is not cached
+     */
+    public synchronized Optional<SortedMap<String, PerformanceData>> get(long slotLength, long slotStart) {
+        SortedMap<String, PerformanceData> cells = slots.get(new SlotKey(slotLength, slotStart));
+        (cells == null ? misses : hits).increment();
+        return Optional.ofNullable(cells);
+    }
+
+    /**
+     * Caches the aggregates of the slot if the slot is completed
+     *
+     * @param slotLength slot length in microseconds
+     * @param slotStart slot start in microseconds
+     * @param cells aggregates by cell in the order of cell identifiers
+     */
+    public synchronized void put(long slotLength, long slotStart, SortedMap<String, PerformanceData> cells) {
+        if (!isCompleted(slotLength, slotStart)) {
+            return;
+        }
+        SortedMap<String, PerformanceData> previous = slots.put(new SlotKey(slotLength, slotStart), cells);
+        entries += weight(cells) - (previous == null ? 0 : weight(previous));
+        Iterator<SortedMap<String, PerformanceData>> eldest = slots.values().iterator();
+        while (entries > config.getMaxEntries() && eldest.hasNext()) {
+            entries -= weight(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    boolean isCompleted(long slotLength, long slotStart) {
+        return slotStart + slotLength <= completedUpTo();
+    }
+
+    /**
+     * @return time in microseconds up to which slots are completed, i.e. now minus the settle time
+     */
+    public long completedUpTo() {
+        return TimeUnit.MILLISECONDS.toMicros(clock.getAsLong() - config.getSettleTime());
+    }
+
+    private static int weight(Map<String, PerformanceData> cells) {
+        return Math.max(1, cells.size());
+    }
+
+    private static final class SlotKey {
+
+        private final long slotLength;
+        private final long slotStart;
+
+        SlotKey(long slotLength, long slotStart) {
+            this.slotLength = slotLength;
+            this.slotStart = slotStart;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof SlotKey)) {
+                return false;
+            }
+            SlotKey key = (SlotKey) other;
+            return slotLength == key.slotLength && slotStart == key.slotStart;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(slotLength, slotStart);
+        }
+    }
+}
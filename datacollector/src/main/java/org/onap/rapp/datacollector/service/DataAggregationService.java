@@ -13,17 +13,12 @@
 
 package org.onap.rapp.datacollector.service;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.OptionalDouble;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import org.onap.rapp.datacollector.entity.DataAggregationInfo;
+import org.onap.rapp.datacollector.entity.pm.MetricRollup;
 import org.onap.rapp.datacollector.entity.pm.PMData;
-import org.onap.rapp.datacollector.entity.pm.PerformanceData;
-import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
-import org.onap.rapp.datacollector.entity.ves.Event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -33,91 +28,48 @@ public class DataAggregationService {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private static final String LATENCY_FIELD_NAME = "latency";
-    private static final String THROUGHPUT_FIELD_NAME = "throughput";
-    public static final int MEASUREMENT_INDEX = 0;
-
-    public PMData getAggregatedDataFromEventsForCell(String cellId, List<Event> events, DataAggregationInfo dataAggregationInfo) {
-        logger.info("Cell {}, events size {}", cellId, events.size());
-        Collection<List<Event>> eventsByTime = groupEventsTimeSlots(events, dataAggregationInfo);
-
-        List<PerformanceData> pmDataList = new ArrayList<>();
-        eventsByTime.forEach(slotOfEvents -> {
-            List<Integer> latencyList = getPerformanceData(slotOfEvents, LATENCY_FIELD_NAME);
-            List<Integer> throughputList = getPerformanceData(slotOfEvents, THROUGHPUT_FIELD_NAME);
-
-            Integer latencyAggregatedData = getAverage(latencyList);
-            Integer throughputAggregatedData = getAverage(throughputList);
-
-            PerformanceData pm = new PerformanceData(latencyAggregatedData, throughputAggregatedData);
-            pmDataList.add(pm);
-        });
-
-        return new PMData(cellId, pmDataList);
+    /**
+     * Sums up the measurements of the window in one pass, the cells are aggregated only when they are passed on and
+     * are not collected
+     *
+     * @param measurements passes every measurement of the window to the given visitor
+     * @param dataAggregationInfo window and slot
+     * @return cells of the window
+     */
+    public AggregatedCells getAggregatedData(Consumer<MeasurementVisitor> measurements,
+            DataAggregationInfo dataAggregationInfo) {
+        SlotAggregator aggregator = new SlotAggregator(dataAggregationInfo);
+        measurements.accept(aggregator);
+        List<String> cellIds = aggregator.getCellIds();
+        logger.info("Aggregating {} cells", cellIds.size());
+        return consumer -> aggregateCells(cellIds, aggregator::getAggregatedData, consumer);
     }
 
-    private Collection<List<Event>> groupEventsTimeSlots(List<Event> events, DataAggregationInfo aggregationInfo) {
-        long slotStartTime = aggregationInfo.getStartTime();
-        long slotEndTime = slotStartTime + aggregationInfo.getSlot();
-
-        List<List<Event>> eventsByTime = new ArrayList<>();
-        List<Event> eventsOfSlot = new ArrayList<>();
-
-        for (Event event : events) {
-            if (isInNextSlot(slotEndTime, event)) {
-                eventsByTime.add(eventsOfSlot);
-                eventsOfSlot = new ArrayList<>();
-
-                slotStartTime = slotEndTime;
-                slotEndTime = slotStartTime + aggregationInfo.getSlot();
-
-                while (isInNextSlot(slotEndTime, event)){
-                    eventsByTime.add(Collections.emptyList());
-                    slotStartTime = slotEndTime;
-                    slotEndTime = slotStartTime + aggregationInfo.getSlot();
-                }
-            }
-            eventsOfSlot.add(event);
-        }
-
-        eventsByTime.add(eventsOfSlot);
-        fillEmptyEndIfNeeded(aggregationInfo, slotEndTime, eventsByTime);
-        return eventsByTime;
+    /**
+     * Merges the base slot rollups into the requested slots and sums up the measurements of the window in the same
+     * pass, the cells are aggregated only when they are passed on
+     *
+     * @param rollups rollups of the part of the window the measurements are not visited of
+     * @param measurements passes every other measurement of the window to the given visitor
+     * @param dataAggregationInfo window and slot aligned to the base slot
+     * @return cells of the window
+     */
+    public AggregatedCells getAggregatedData(List<MetricRollup> rollups, Consumer<MeasurementVisitor> measurements,
+            DataAggregationInfo dataAggregationInfo) {
+        SlotAggregator aggregator = new SlotAggregator(dataAggregationInfo);
+        rollups.forEach(aggregator::merge);
+        measurements.accept(aggregator);
+        List<String> cellIds = aggregator.getCellIds();
+        logger.info("Aggregating {} cells, {} rollups", cellIds.size(), rollups.size());
+        return consumer -> aggregateCells(cellIds, aggregator::getAggregatedData, consumer);
     }
 
-    private boolean isInNextSlot(long slotEndTime, Event event) {
-        return event.getCommonEventHeader().getLastEpochMicrosec() > slotEndTime;
-    }
-
-    private void fillEmptyEndIfNeeded(DataAggregationInfo aggregationInfo, long slotEndTime, List<List<Event>> eventsByTime) {
-        while (slotEndTime < aggregationInfo.getEndTime()){
-            eventsByTime.add(Collections.emptyList());
-            slotEndTime = slotEndTime + aggregationInfo.getSlot();
-        }
-    }
-
-    private List<Integer> getPerformanceData(List<Event> events, String measurement) {
-        return events.stream().map(e -> getPerformanceDataFromEvent(e, measurement))
-                .collect(Collectors.toList());
-    }
-
-    private int getPerformanceDataFromEvent(Event event, String name) {
-        AdditionalMeasurements performance = event.getMeasurementFields().getAdditionalMeasurements()
-                .stream().filter(am -> am.getName().equals(name)).findAny().orElseThrow();
-        return Integer.parseInt(performance.getValues().get(MEASUREMENT_INDEX).getParameterValue());
-    }
-
-    private Integer getAverage(List<Integer> values) {
-        if (values.isEmpty()) {
-            return null;
-        }
-        OptionalDouble average = values.stream().mapToDouble(l -> l).average();
-
-        if (average.isPresent()) {
-            return (int) average.getAsDouble();
-        } else {
-            return null;
-        }
+    /**
+     * Aggregates every cell and passes it to the consumer in the order of the cells, so only one aggregated cell is
+     * held at a time
+     */
+    private <T> void aggregateCells(List<T> cells, Function<T, PMData> aggregation, Consumer<PMData> consumer) {
+        cells.stream().map(aggregation).forEach(consumer);
     }
 
 }
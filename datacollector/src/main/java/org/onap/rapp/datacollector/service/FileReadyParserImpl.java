@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -35,6 +36,7 @@ import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
 import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
 import org.onap.rapp.datacollector.entity.ves.Event;
 import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
+import org.onap.rapp.datacollector.entity.ves.RawPayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -78,24 +80,27 @@ public class FileReadyParserImpl extends ParserAbstractClass implements VesParse
     private List<Event> convertFileReadyEventToEventList(FileReadyEvent fileReadyEvent, String eventString) {
         List<Event> events = new ArrayList<>();
         long averageMeasInterval = getAverageMeasInterval(fileReadyEvent);
+        RawPayload payload = RawPayload.builder().withPayload(eventString).build();
         fileReadyEvent.getMeasDataCollection().getMeasInfoList()
                 .forEach(measInfo -> measInfo.getMeasValuesList().stream()
                         .filter(measValue -> hasListOfTypesSameSizeAsListOfResults(measInfo, measValue))
-                        .forEach(measValue -> events.add(createEvent(fileReadyEvent, measInfo, measValue, eventString, averageMeasInterval))));
+                        .forEach(measValue -> events.add(createEvent(fileReadyEvent, measInfo, measValue, payload, averageMeasInterval))));
+        payload.lastEpochMicrosec = events.stream().map(event -> event.commonEventHeader.getLastEpochMicrosec())
+                .filter(Objects::nonNull).mapToLong(Long::longValue).max().orElse(0L);
         return events;
     }
 
     /**
-     * Creates individual event from FileReadyEvent data
+     * Creates individual event from FileReadyEvent data, all events of one FileReadyEvent share its raw payload
      *
      * @param fileReadyEvent bject created from PM Mapper response
      * @param measInfo measurement Info object
      * @param measValue measurement Value object
-     * @param eventString Json event in string
+     * @param payload raw payload of the FileReadyEvent
      * @param averageMeasInterval calculated average interval
      * @return Event object
      */
-    private Event createEvent(FileReadyEvent fileReadyEvent, MeasInfo measInfo, MeasValue measValue, String eventString, long averageMeasInterval) {
+    private Event createEvent(FileReadyEvent fileReadyEvent, MeasInfo measInfo, MeasValue measValue, RawPayload payload, long averageMeasInterval) {
         List<AdditionalMeasurements> additionalMeasList = new ArrayList<>();
         // Adding measurement's results to additionalMeasList
         measValue.getMeasResults()
@@ -116,7 +121,7 @@ public class FileReadyParserImpl extends ParserAbstractClass implements VesParse
                 .additionalMeasurements(additionalMeasList)
                 .build();
         Event createdEvent = Event.of(createEventHeader(fileReadyEvent, averageMeasInterval), measurementFields);
-        createdEvent.raw = eventString;
+        createdEvent.payload = payload;
         return createdEvent;
     }
 
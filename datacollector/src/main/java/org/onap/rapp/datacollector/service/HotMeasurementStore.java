@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the measurements of the last hot horizon in memory, per cell in fixed-size primitive ring buffers fed by the
+ * ingest pipeline. The store covers a window only from the application start, which is assumed to be the earliest
+ * event time ingested by this instance, and never before the horizon or the latest entry lost to a full ring buffer.
+ */
+@Component
+public class HotMeasurementStore {
+
+    private static final int MISSING = MeasurementVisitor.MISSING;
+
+    private final IngestProperties.HotStore config;
+    private final LongSupplier clock;
+    private final long startedAt;
+    private final Map<String, CellSeries> cells = new ConcurrentHashMap<>();
+    private final AtomicLong overwrittenUpTo = new AtomicLong(Long.MIN_VALUE);
+
+    @Autowired
+    public HotMeasurementStore(IngestProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    HotMeasurementStore(IngestProperties properties, LongSupplier clock) {
+        this.config = properties.getHotStore();
+        this.clock = clock;
+        this.startedAt = nowMicros();
+    }
+
+    /**
+     * Adds the typed columns of the event, events without cell or older than the horizon are ignored
+     *
+     * @param event parsed event with typed columns
+     */
+    public void add(Event event) {
+        if (!config.isEnabled() || event.cellId == null || event.commonEventHeader == null
+                || event.commonEventHeader.getLastEpochMicrosec() == null) {
+            return;
+        }
+        long timestamp = event.commonEventHeader.getLastEpochMicrosec();
+        long horizonStart = horizonStart();
+        if (timestamp < horizonStart) {
+            return;
+        }
+        cells.compute(event.cellId, (cellId, series) -> {
+            CellSeries cellSeries = series == null ? new CellSeries(config.getCellCapacity()) : series;
+            long overwritten = cellSeries.add(timestamp, event.latency, event.throughput);
+            if (overwritten >= horizonStart) {
+                overwrittenUpTo.accumulateAndGet(overwritten, Math::max);
+            }
+            return cellSeries;
+        });
+    }
+
+    /**
+     * @return start of the time range, in microseconds, the store holds all measurements of
+     */
+    public long coveredFrom() {
+        if (!config.isEnabled()) {
+            return Long.MAX_VALUE;
+        }
+        long overwritten = overwrittenUpTo.get();
+        return Math.max(Math.max(startedAt, horizonStart()), overwritten == Long.MIN_VALUE ? overwritten : overwritten + 1);
+    }
+
+    /**
+     * Passes the measurements of all cells in the window to the visitor without creating records, the measurements
+     * are ordered by time within a cell only
+     *
+     * @param startTime window start in microseconds, inclusive
+     * @param endTime window end in microseconds, inclusive
+     * @param visitor measurement visitor
+     */
+    public void forEach(long startTime, long endTime, MeasurementVisitor visitor) {
+        forEach(startTime, endTime, MeasurementFilter.ALL, visitor);
+    }
+
+    /**
+     * Passes the measurements of the filtered cells in the window to the visitor, the series of other cells are not
+     * read
+     *
+     * @param startTime window start in microseconds, inclusive
+     * @param endTime window end in microseconds, inclusive
+     * @param filter cells to visit
+     * @param visitor measurement visitor
+     */
+    public void forEach(long startTime, long endTime, MeasurementFilter filter, MeasurementVisitor visitor) {
+        if (filter.getCellIds() == null) {
+            cells.forEach((cellId, series) -> series.visit(cellId, startTime, endTime, visitor));
+            return;
+        }
+        for (String cellId : filter.getCellIds()) {
+            CellSeries series = cells.get(cellId);
+            if (series != null) {
+                series.visit(cellId, startTime, endTime, visitor);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ingest.hot-store.horizon:600000}")
+    public void evictIdleCells() {
+        long horizonStart = horizonStart();
+        cells.keySet().forEach(cellId -> cells.computeIfPresent(cellId,
+                (id, series) -> series.newest() < horizonStart ? null : series));
+    }
+
+    private long horizonStart() {
+        return nowMicros() - TimeUnit.MILLISECONDS.toMicros(config.getHorizon());
+    }
+
+    private long nowMicros() {
+        return TimeUnit.MILLISECONDS.toMicros(clock.getAsLong());
+    }
+
+    /**
+     * Ring buffer of one cell, the oldest entry is overwritten when it is full
+     */
+    private static final class CellSeries {
+
+        private final long[] timestamps;
+        private final int[] latencies;
+        private final int[] throughputs;
+        private int next;
+        private int size;
+        private long newest = Long.MIN_VALUE;
+
+        CellSeries(int capacity) {
+            this.timestamps = new long[capacity];
+            this.latencies = new int[capacity];
+            this.throughputs = new int[capacity];
+        }
+
+        /**
+         * @return timestamp of the overwritten entry, Long.MIN_VALUE if no entry was overwritten
+         */
+        synchronized long add(long timestamp, Integer latency, Integer throughput) {
+            long overwritten = size == timestamps.length ? timestamps[next] : Long.MIN_VALUE;
+            timestamps[next] = timestamp;
+            latencies[next] = latency == null ? MISSING : latency;
+            throughputs[next] = throughput == null ? MISSING : throughput;
+            next = (next + 1) % timestamps.length;
+            size = Math.min(size + 1, timestamps.length);
+            newest = Math.max(newest, timestamp);
+            return overwritten;
+        }
+
+        synchronized void visit(String cellId, long startTime, long endTime, MeasurementVisitor visitor) {
+            int oldest = size == timestamps.length ? next : 0;
+            for (int i = 0; i < size; i++) {
+                int index = (oldest + i) % timestamps.length;
+                long timestamp = timestamps[index];
+                if (timestamp >= startTime && timestamp <= endTime) {
+                    visitor.visit(cellId, timestamp, latencies[index], throughputs[index]);
+                }
+            }
+        }
+
+        synchronized long newest() {
+            return newest;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports queue depths of the ingest pipeline and of the write-behind buffer, the service is reported out of service
+ * while any queue is saturated or buffered events cannot be written
+ */
+@Component("ingestPipeline")
+public class IngestPipelineHealthIndicator extends AbstractHealthIndicator {
+
+    private final VesIngestPipeline pipeline;
+    private final ObjectProvider<WriteBehindVesPersister> writeBehind;
+
+    public IngestPipelineHealthIndicator(VesIngestPipeline pipeline, ObjectProvider<WriteBehindVesPersister> writeBehind) {
+        super("Ingest pipeline health check failed");
+        this.pipeline = pipeline;
+        this.writeBehind = writeBehind;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (!pipeline.isRunning()) {
+            builder.down();
+        } else if (pipeline.isSaturated() || isWriteFailing()) {
+            builder.outOfService();
+        } else {
+            builder.up();
+        }
+        pipeline.getStageStatuses().forEach(status -> builder.withDetail(status.getName(),
+                String.format("%d/%d", status.getSize(), status.getCapacity())));
+        writeBehind.ifAvailable(persister -> builder.withDetail("writeBehind",
+                String.format("%d/%d", persister.getPendingCount(), persister.getCapacity())));
+    }
+
+    private boolean isWriteFailing() {
+        WriteBehindVesPersister persister = writeBehind.getIfAvailable();
+        return persister != null && persister.isWriteFailing();
+    }
+}
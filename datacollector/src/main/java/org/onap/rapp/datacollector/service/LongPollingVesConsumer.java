@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.onap.rapp.datacollector.service.configuration.DmaapProperties;
+import org.onap.rapp.datacollector.service.configuration.DmaapRestReaderConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps DMaaP long-polls open on every measurements topic, used in the "long-poll" consumer mode.
+ * A topic is read again right away as long as it returns events, the loop backs off only after an empty or failed
+ * poll.
+ * On shutdown the polls in flight are awaited before the ingest pipeline stops, their events are already committed
+ * on the DMaaP consumer group.
+ */
+@Service
+@ConditionalOnProperty(prefix = "dmaap", name = "consumer-mode", havingValue = "long-poll", matchIfMissing = true)
+public class LongPollingVesConsumer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LongPollingVesConsumer.class);
+
+    private final VesRetrievalService retrievalService;
+    private final DmaapRestReaderConfiguration config;
+    private final Executor pollingExecutor;
+
+    private final List<CompletableFuture<Void>> consumers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public LongPollingVesConsumer(VesRetrievalService retrievalService, DmaapRestReaderConfiguration config,
+            @Qualifier("dmaapPollingExecutor") Executor pollingExecutor) {
+        this.retrievalService = retrievalService;
+        this.config = config;
+        this.pollingExecutor = pollingExecutor;
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        DmaapProperties properties = config.getDmaapProperties();
+        logger.info("Starting long-poll consumers for {} with timeout {} ms and limit {}",
+                config.getMeasurementsTopicUrls(), properties.getTimeout(), properties.getLimit());
+        consumers.clear();
+        config.getMeasurementsTopicUrls().forEach(topic -> {
+            for (int i = 0; i < properties.getMaxInFlightPerTopic(); i++) {
+                consumers.add(CompletableFuture.runAsync(() -> consume(topic), pollingExecutor));
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        stop(() -> { });
+    }
+
+    /**
+     * Waits up to the DMaaP read timeout for the polls in flight, so that the events they return are still
+     * accepted by the ingest pipeline, which stops in a later phase
+     */
+    @Override
+    public synchronized void stop(Runnable callback) {
+        running = false;
+        try {
+            CompletableFuture.allOf(consumers.toArray(new CompletableFuture<?>[0]))
+                    .get(config.getDmaapProperties().getReadTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Long-poll consumers did not stop cleanly", e);
+        }
+        consumers.clear();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void consume(String topic) {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            if (pollOnce(topic)) {
+                backOff();
+            }
+        }
+        logger.info("Long-poll consumer of {} stopped", topic);
+    }
+
+    /**
+     * Reads and stores one batch from the topic
+     *
+     * @param topic topic url
+     * @return true=topic was empty or the poll failed and the loop should back off, false=read again right away
+     */
+    boolean pollOnce(String topic) {
+        try {
+            int received = retrievalService.retrieveAndStoreVesEvents(topic);
+            logger.debug("{} events read from {}", received, topic);
+            return received == 0;
+        } catch (RuntimeException ex) {
+            logger.error("Failed to consume events from {}", topic, ex);
+            return true;
+        }
+    }
+
+    private void backOff() {
+        try {
+            Thread.sleep(config.getDmaapProperties().getEmptyPollBackoff());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.onap.rapp.datacollector.service.PMService.CELL_FIELD_NAME;
+
+import java.util.List;
+
+import org.onap.rapp.datacollector.entity.pm.MeasurementRecord;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurementValues;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the cell identifier and the metric values out of the additional measurements of an event,
+ * so they can be stored in typed columns and aggregated without parsing the event again
+ */
+final class MeasurementColumns {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeasurementColumns.class);
+
+    static final String LATENCY_FIELD_NAME = "latency";
+    static final String THROUGHPUT_FIELD_NAME = "throughput";
+    static final int VALUE_INDEX = 0;
+
+    private MeasurementColumns() {
+    }
+
+    /**
+     * Sets cellId, latency and throughput of the event from its additional measurements, in one pass, and marks the
+     * event as typed, so it is aggregated from its typed columns once stored
+     *
+     * @param event parsed event
+     */
+    static void fill(Event event) {
+        event.typed = true;
+        if (event.measurementFields == null || event.measurementFields.getAdditionalMeasurements() == null) {
+            return;
+        }
+        for (AdditionalMeasurements measurement : event.measurementFields.getAdditionalMeasurements()) {
+            if (CELL_FIELD_NAME.equals(measurement.getName())) {
+                event.cellId = firstValue(measurement);
+            } else if (LATENCY_FIELD_NAME.equals(measurement.getName())) {
+                event.latency = toInteger(measurement);
+            } else if (THROUGHPUT_FIELD_NAME.equals(measurement.getName())) {
+                event.throughput = toInteger(measurement);
+            }
+        }
+    }
+
+    /**
+     * Typed columns of an event which was stored without them
+     *
+     * @param event parsed event
+     * @return typed columns of the event
+     */
+    static MeasurementRecord toRecord(Event event) {
+        fill(event);
+        return new MeasurementRecord(event.cellId, event.commonEventHeader.getLastEpochMicrosec(), event.latency,
+                event.throughput);
+    }
+
+    private static String firstValue(AdditionalMeasurements measurement) {
+        List<AdditionalMeasurementValues> values = measurement.getValues();
+        return values == null || values.isEmpty() ? null : values.get(VALUE_INDEX).getParameterValue();
+    }
+
+    private static Integer toInteger(AdditionalMeasurements measurement) {
+        String value = firstValue(measurement);
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            logger.debug("Not a number {} of {}", value, measurement.getName());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import org.onap.rapp.datacollector.entity.pm.MeasurementRecord;
+
+/**
+ * Receives the measurements of a window one at a time, so they need not be collected first. A missing metric value
+ * is passed as {@link #MISSING}.
+ */
+@FunctionalInterface
+public interface MeasurementVisitor {
+
+    int MISSING = Integer.MIN_VALUE;
+
+    void visit(String cellId, long lastEpochMicrosec, int latency, int throughput);
+
+    /**
+     * Visits the record, records without cell or timestamp are skipped
+     *
+     * @param measurement measurement record
+     */
+    default void visit(MeasurementRecord measurement) {
+        if (measurement.getCellId() == null || measurement.getLastEpochMicrosec() == null) {
+            return;
+        }
+        visit(measurement.getCellId(), measurement.getLastEpochMicrosec(), valueOf(measurement.getLatency()),
+                valueOf(measurement.getThroughput()));
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? MISSING : value;
+    }
+}
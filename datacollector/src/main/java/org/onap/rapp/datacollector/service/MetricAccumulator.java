@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+/**
+ * Sum, count, min and max of metric values, accumulators of smaller slots merge into the accumulator of a larger slot
+ */
+final class MetricAccumulator {
+
+    private long sum;
+    private long count;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    void add(int value) {
+        merge(value, 1, value, value);
+    }
+
+    void merge(long otherSum, long otherCount, int otherMin, int otherMax) {
+        sum += otherSum;
+        count += otherCount;
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+
+    long getSum() {
+        return sum;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    int getMin() {
+        return min;
+    }
+
+    int getMax() {
+        return max;
+    }
+
+    /**
+     * @return average truncated to integer, null if no value was accumulated
+     */
+    Integer average() {
+        return count == 0 ? null : (int) (sum / (double) count);
+    }
+}
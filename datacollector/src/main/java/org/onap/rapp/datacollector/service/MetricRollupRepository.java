@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.onap.rapp.datacollector.service.MeasurementColumns.LATENCY_FIELD_NAME;
+import static org.onap.rapp.datacollector.service.MeasurementColumns.THROUGHPUT_FIELD_NAME;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.onap.rapp.datacollector.entity.DataAggregationInfo;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.pm.MetricRollup;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Per cell, metric and base slot rollups of the metric values, updated with every batch of inserted events.
+ * A base slot starting at slotStart holds the values with timestamps in (slotStart, slotStart + base slot], the same
+ * way the aggregation puts an event at the end of a slot into that slot.
+ */
+@Repository
+public class MetricRollupRepository {
+
+    static final String UPSERT_ROLLUP = "INSERT INTO measurement_rollup (cell_id, metric, slot_start, sum_value, value_count, "
+            + "min_value, max_value) VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "sum_value = sum_value + VALUES(sum_value), value_count = value_count + VALUES(value_count), "
+            + "min_value = LEAST(min_value, VALUES(min_value)), max_value = GREATEST(max_value, VALUES(max_value))";
+    static final String SELECT_ROLLUPS = "SELECT cell_id, metric, slot_start, sum_value, value_count, min_value, max_value "
+            + "FROM measurement_rollup WHERE slot_start >= ? AND slot_start < ?";
+    static final String ORDER_BY_CELL_AND_SLOT = " ORDER BY cell_id, slot_start";
+    static final String DELETE_ROLLUPS = "DELETE FROM measurement_rollup WHERE slot_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProperties.Rollup config;
+
+    public MetricRollupRepository(JdbcTemplate jdbcTemplate, DatabaseProperties databaseProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = databaseProperties.getRollup();
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Rollups answer a window only if its start and slot are aligned to the base slot
+     *
+     * @param aggregationInfo requested window and slot, in microseconds
+     * @return true=window can be aggregated from rollups
+     */
+    public boolean canAnswer(DataAggregationInfo aggregationInfo) {
+        long baseSlot = baseSlot();
+        return config.isEnabled() && aggregationInfo.getSlot() > 0 && aggregationInfo.getSlot() % baseSlot == 0
+                && aggregationInfo.getStartTime() % baseSlot == 0;
+    }
+
+    /**
+     * Adds the metric values of the events to their rollups on the connection of the current transaction.
+     * Values are summed up per rollup first, so every rollup is updated once per batch, in key order.
+     *
+     * @param connection connection the events are inserted with
+     * @param events events with typed columns
+     */
+    void upsert(Connection connection, List<Event> events) throws SQLException {
+        Map<RollupKey, MetricAccumulator> rollups = new TreeMap<>();
+        for (Event event : events) {
+            if (event.cellId == null || event.commonEventHeader == null
+                    || event.commonEventHeader.getLastEpochMicrosec() == null) {
+                continue;
+            }
+            long slotStart = slotStartOf(event.commonEventHeader.getLastEpochMicrosec());
+            accumulate(rollups, event.cellId, LATENCY_FIELD_NAME, slotStart, event.latency);
+            accumulate(rollups, event.cellId, THROUGHPUT_FIELD_NAME, slotStart, event.throughput);
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_ROLLUP)) {
+            for (Map.Entry<RollupKey, MetricAccumulator> rollup : rollups.entrySet()) {
+                RollupKey key = rollup.getKey();
+                MetricAccumulator values = rollup.getValue();
+                statement.setString(1, key.cellId);
+                statement.setString(2, key.metric);
+                statement.setLong(3, key.slotStart);
+                statement.setLong(4, values.getSum());
+                statement.setLong(5, values.getCount());
+                statement.setInt(6, values.getMin());
+                statement.setInt(7, values.getMax());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Rollups of the base slots within the window, only of the filtered cells and metrics
+     *
+     * @param startTime window start in microseconds, aligned to the base slot
+     * @param endTime window end in microseconds
+     * @param filter cells and metrics to read
+     * @return rollups ordered by cell and slot
+     */
+    public List<MetricRollup> find(long startTime, long endTime, MeasurementFilter filter) {
+        StringBuilder sql = new StringBuilder(SELECT_ROLLUPS);
+        List<Object> args = new ArrayList<>(List.of(startTime, endTime));
+        appendIn(sql, args, "cell_id", filter.getCellIds());
+        appendIn(sql, args, "metric", filter.getMetrics());
+        sql.append(ORDER_BY_CELL_AND_SLOT);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new MetricRollup(rs.getString(1), rs.getString(2),
+                rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getInt(6), rs.getInt(7)), args.toArray());
+    }
+
+    private static void appendIn(StringBuilder sql, List<Object> args, String column, Set<String> values) {
+        if (values != null) {
+            sql.append(" AND ").append(column).append(" IN (")
+                    .append(String.join(", ", Collections.nCopies(values.size(), "?"))).append(')');
+            args.addAll(values);
+        }
+    }
+
+    long slotStartOf(long timestamp) {
+        long baseSlot = baseSlot();
+        return Math.floorDiv(timestamp - 1, baseSlot) * baseSlot;
+    }
+
+    private long baseSlot() {
+        return TimeUnit.SECONDS.toMicros(config.getBaseSlot());
+    }
+
+    private static void accumulate(Map<RollupKey, MetricAccumulator> rollups, String cellId, String metric,
+            long slotStart, Integer value) {
+        if (value != null) {
+            rollups.computeIfAbsent(new RollupKey(cellId, metric, slotStart), key -> new MetricAccumulator()).add(value);
+        }
+    }
+
+    private static final class RollupKey implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.<RollupKey, String>comparing(key -> key.cellId)
+                .thenComparing(key -> key.metric).thenComparingLong(key -> key.slotStart);
+
+        private final String cellId;
+        private final String metric;
+        private final long slotStart;
+
+        RollupKey(String cellId, String metric, long slotStart) {
+            this.cellId = cellId;
+            this.metric = metric;
+            this.slotStart = slotStart;
+        }
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RollupKey)) {
+                return false;
+            }
+            return compareTo((RollupKey) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cellId, metric, slotStart);
+        }
+    }
+}
@@ -14,18 +14,31 @@
 package org.onap.rapp.datacollector.service;
 
 import java.math.BigInteger;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import org.onap.rapp.datacollector.entity.DataAggregationInfo;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.SlotWindow;
 import org.onap.rapp.datacollector.entity.pm.AggregatedPM;
 import org.onap.rapp.datacollector.entity.pm.PMData;
-import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
-import org.onap.rapp.datacollector.entity.ves.Event;
-import org.onap.rapp.datacollector.entity.ves.EventAPI;
+import org.onap.rapp.datacollector.entity.pm.PerformanceData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service("pmService")
@@ -35,58 +48,477 @@ public class PMService {
 
     public static final String CELL_FIELD_NAME = "identifier";
     public static final String VALUE_NAME = "value";
-    public static final int CELL_INDEX = 0;
+    /** Metrics which are aggregated, the names of the fields in the aggregated data */
+    public static final Set<String> METRICS = Set.of(MeasurementColumns.LATENCY_FIELD_NAME,
+            MeasurementColumns.THROUGHPUT_FIELD_NAME);
     private static final int MICRO_SECONDS_OF_SECOND = 1_000_000;
+    /** Shared payloads of untyped events are read this many at a time */
+    private static final int PAYLOAD_CHUNK_SIZE = 100;
 
     private final VesPersisterSqlImpl vesPersisterSql;
     private final DataAggregationService aggregationService;
     private final ParserFactory parser;
+    private final HotMeasurementStore hotStore;
+    private final MetricRollupRepository rollups;
+    private final AggregatedSlotCache slotCache;
+    private final LongSupplier clock;
 
-    public PMService(VesPersisterSqlImpl vesPersisterSql, DataAggregationService aggregationService, ParserFactory parser) {
+    @Autowired
+    public PMService(VesPersisterSqlImpl vesPersisterSql, DataAggregationService aggregationService, ParserFactory parser,
+            HotMeasurementStore hotStore, MetricRollupRepository rollups, AggregatedSlotCache slotCache) {
+        this(vesPersisterSql, aggregationService, parser, hotStore, rollups, slotCache, System::currentTimeMillis);
+    }
+
+    PMService(VesPersisterSqlImpl vesPersisterSql, DataAggregationService aggregationService, ParserFactory parser,
+            HotMeasurementStore hotStore, MetricRollupRepository rollups, AggregatedSlotCache slotCache,
+            LongSupplier clock) {
         this.vesPersisterSql = vesPersisterSql;
         this.aggregationService = aggregationService;
         this.parser = parser;
+        this.hotStore = hotStore;
+        this.rollups = rollups;
+        this.slotCache = slotCache;
+        this.clock = clock;
     }
 
     public AggregatedPM getAggregatedPMDataForTimeInterval(int slot, int count, OffsetDateTime startTime) {
-        DataAggregationInfo aggregationInfo = buildDataAggregationInfo(slot, count, startTime);
-        logger.info("Start Time: {}, EndTime: {}", aggregationInfo.getStartTime(), aggregationInfo.getEndTime());
-        List<EventAPI> eventsOfInterval = vesPersisterSql.findEventsByTimeWindow(aggregationInfo.getStartTime(), aggregationInfo.getEndTime());
-        Map<String, List<Event>> eventsByCell = groupByCell(eventsOfInterval);
-        List<PMData> pmDataList = calculateAggregatedData(aggregationInfo, eventsByCell);
+        List<PMData> pmDataList = new ArrayList<>();
+        streamAggregatedPMDataForTimeInterval(slot, count, startTime, pmDataList::add);
         return new AggregatedPM(pmDataList, pmDataList.size());
     }
 
-    private DataAggregationInfo buildDataAggregationInfo(int slot, int count, OffsetDateTime startTime) {
-        long timeIntervalStartTime = startTime.toEpochSecond() * MICRO_SECONDS_OF_SECOND;
+    /**
+     * Aggregates the window and passes every cell to the consumer once it is aggregated, the cells are not collected
+     *
+     * @param slot slot length in seconds
+     * @param count number of slots
+     * @param startTime window start
+     * @param consumer consumer of the aggregated data of every cell
+     * @return number of cells
+     */
+    public int streamAggregatedPMDataForTimeInterval(int slot, int count, OffsetDateTime startTime, Consumer<PMData> consumer) {
+        return streamAggregatedPMDataForTimeInterval(slot, count, startTime, MeasurementFilter.ALL, consumer);
+    }
+
+    /**
+     * Aggregates the filtered cells and metrics of the window and passes every cell to the consumer once it is
+     * aggregated. Other cells are not read where the storage allows it, other metrics are not aggregated and are null.
+     *
+     * @param slot slot length in seconds
+     * @param count number of slots
+     * @param startTime window start
+     * @param filter cells and metrics to aggregate
+     * @param consumer consumer of the aggregated data of every cell
+     * @return number of cells
+     */
+    public int streamAggregatedPMDataForTimeInterval(int slot, int count, OffsetDateTime startTime, MeasurementFilter filter,
+            Consumer<PMData> consumer) {
+        AtomicInteger cells = new AtomicInteger();
+        readAggregatedPMDataForTimeInterval(slot, count, startTime, filter).forEach(pmData -> {
+            cells.incrementAndGet();
+            consumer.accept(pmData);
+        });
+        return cells.get();
+    }
+
+    /**
+     * Reads the measurements of the filtered cells and metrics of the window, the cells are aggregated only when they
+     * are passed on. A failing read fails this call, not the passing on of the cells.
+     *
+     * @param slot slot length in seconds
+     * @param count number of slots
+     * @param startTime window start
+     * @param filter cells and metrics to aggregate
+     * @return cells of the window
+     */
+    public AggregatedCells readAggregatedPMDataForTimeInterval(int slot, int count, OffsetDateTime startTime,
+            MeasurementFilter filter) {
+        DataAggregationInfo aggregationInfo = buildDataAggregationInfo(slot, count, startTime, filter);
+        logger.info("Start Time: {}, EndTime: {}", aggregationInfo.getStartTime(), aggregationInfo.getEndTime());
+        if (slotCache.isEnabled() && slot > 0) {
+            return aggregateWithSlotCache(aggregationInfo, count);
+        }
+        return aggregate(aggregationInfo);
+    }
+
+    /**
+     * Slots which are aggregated for the given start time
+     *
+     * @param slot slot length in seconds, positive
+     * @param count number of slots
+     * @param startTime requested window start
+     * @return window starting at the start time, aligned to the slot when the slot cache is enabled
+     */
+    public SlotWindow getWindow(int slot, int count, OffsetDateTime startTime) {
+        return buildSlotWindow((long) slot * MICRO_SECONDS_OF_SECOND, getWindowStartTime(slot, startTime), count);
+    }
+
+    /**
+     * Slots which completed or may have changed since the cursor of a previous response, up to the current slot.
+     * Slots completed before the cursor are not returned again, at most count slots are returned.
+     *
+     * @param slot slot length in seconds, positive
+     * @param count maximal number of slots
+     * @param since cursor of a previous response
+     * @return window starting at the cursor, aligned to the slot
+     */
+    public SlotWindow getWindowSince(int slot, int count, OffsetDateTime since) {
+        long slotMicrosec = (long) slot * MICRO_SECONDS_OF_SECOND;
+        long now = TimeUnit.MILLISECONDS.toMicros(clock.getAsLong());
+        long currentSlotStart = Math.floorDiv(now - 1, slotMicrosec) * slotMicrosec;
+        long sinceSlotStart = Math.floorDiv(since.toEpochSecond() * MICRO_SECONDS_OF_SECOND, slotMicrosec) * slotMicrosec;
+        long start = Math.min(currentSlotStart, Math.max(sinceSlotStart, currentSlotStart - (count - 1) * slotMicrosec));
+        return buildSlotWindow(slotMicrosec, start, (int) ((currentSlotStart - start) / slotMicrosec) + 1);
+    }
+
+    /**
+     * The cursor is the start of the oldest slot of the window which is not completed, or the window end if all slots
+     * are completed
+     */
+    private SlotWindow buildSlotWindow(long slotMicrosec, long startTime, int count) {
+        long endTime = startTime + count * slotMicrosec;
+        long firstOpenSlot = Math.floorDiv(slotCache.completedUpTo(), slotMicrosec) * slotMicrosec;
+        long cursor = Math.min(endTime, Math.max(startTime, firstOpenSlot));
+        return new SlotWindow(toOffsetDateTime(startTime), count, toOffsetDateTime(cursor));
+    }
+
+    private static OffsetDateTime toOffsetDateTime(long epochMicrosec) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(Math.floorDiv(epochMicrosec, MICRO_SECONDS_OF_SECOND)),
+                ZoneOffset.UTC);
+    }
+
+    /**
+     * The persisted prefix of the window is merged from rollups and the measurements of the rest of the window are
+     * visited, see {@link #rollupsEnd(DataAggregationInfo)}. A slot holds the measurements with timestamp in
+     * (slot start, slot end] on both paths, only the first slot also holds the measurements at the window start,
+     * which are never in the rollups of the window and are visited. Parsed payloads hold events of other times as well,
+     * so every part of the window visits only its own time range and no event is counted twice.
+     */
+    private AggregatedCells aggregate(DataAggregationInfo aggregationInfo) {
+        long startTime = aggregationInfo.getStartTime();
+        long endTime = aggregationInfo.getEndTime();
+        MeasurementFilter filter = aggregationInfo.getFilter();
+        long rollupsEnd = rollupsEnd(aggregationInfo);
+        if (rollupsEnd <= startTime) {
+            return aggregationService.getAggregatedData(visitor -> visitMeasurements(startTime, endTime, filter, visitor),
+                    aggregationInfo);
+        }
+        return aggregationService.getAggregatedData(rollups.find(startTime, rollupsEnd, filter), visitor -> {
+            visitMeasurements(startTime, startTime, filter, within(startTime, startTime, visitor));
+            visitUntypedMeasurements(startTime + 1, rollupsEnd, within(startTime + 1, rollupsEnd, visitor));
+            if (rollupsEnd < endTime) {
+                visitMeasurements(rollupsEnd + 1, endTime, filter, within(rollupsEnd + 1, endTime, visitor));
+            }
+        }, aggregationInfo);
+    }
+
+    private static MeasurementVisitor within(long startTime, long endTime, MeasurementVisitor visitor) {
+        return (cellId, lastEpochMicrosec, latency, throughput) -> {
+            if (lastEpochMicrosec >= startTime && lastEpochMicrosec <= endTime) {
+                visitor.visit(cellId, lastEpochMicrosec, latency, throughput);
+            }
+        };
+    }
+
+    /**
+     * Takes completed slots from the cache and aggregates only the slots which are open or not cached,
+     * adjacent missing slots are aggregated together. Cached slots hold all cells and metrics and are filtered when
+     * the cells are passed on, slots aggregated for a filter are not cached.
+     * <p>
+     * Missing slots which are cached once aggregated are collected by cell. The last run of missing slots which are
+     * not cached, usually the open slots at the window end, is aggregated only when the cells are passed on and every
+     * cell is merged with its cached slots and passed on right away. Cells which are only in cached slots are passed
+     * on in between, in the order of cell identifiers, so the cells of the window are neither collected nor sorted.
+     *
+     * @param aggregationInfo epoch-aligned window
+     * @param count number of slots
+     * @return cells of the window
+     */
+    private AggregatedCells aggregateWithSlotCache(DataAggregationInfo aggregationInfo, int count) {
+        long slot = aggregationInfo.getSlot();
+        List<SortedMap<String, PerformanceData>> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            slots.add(slotCache.get(slot, aggregationInfo.getStartTime() + i * slot).orElse(null));
+        }
+        int streamedTo = count;
+        while (streamedTo > 0 && slots.get(streamedTo - 1) != null) {
+            streamedTo--;
+        }
+        int streamedFrom = streamedTo;
+        while (streamedFrom > 0 && slots.get(streamedFrom - 1) == null && !isCacheable(aggregationInfo, streamedFrom - 1)) {
+            streamedFrom--;
+        }
+        int from = 0;
+        while (from < streamedFrom) {
+            int to = from;
+            while (to < streamedFrom && slots.get(to) == null) {
+                to++;
+            }
+            if (to > from) {
+                aggregateSlots(aggregationInfo, from, to, slots);
+            }
+            from = to + 1;
+        }
+        MeasurementFilter filter = aggregationInfo.getFilter();
+        int first = streamedFrom;
+        AggregatedCells streamed = streamedFrom < streamedTo
+                ? aggregate(slotsOf(aggregationInfo, streamedFrom, streamedTo))
+                : consumer -> {
+                };
+        return consumer -> {
+            CachedCells cachedCells = new CachedCells(slots, filter);
+            streamed.forEach(pmData -> {
+                String cellId = pmData.getCellId();
+                while (cachedCells.hasNextBefore(cellId)) {
+                    consumer.accept(merge(cachedCells.next(), slots, first, List.of(), filter));
+                }
+                cachedCells.skip(cellId);
+                if (filter.acceptsCell(cellId)) {
+                    consumer.accept(merge(cellId, slots, first, pmData.getPerformance(), filter));
+                }
+            });
+            while (cachedCells.hasNextBefore(null)) {
+                consumer.accept(merge(cachedCells.next(), slots, first, List.of(), filter));
+            }
+        };
+    }
+
+    /**
+     * Slots aggregated for all cells and metrics are cached once they are completed
+     */
+    private boolean isCacheable(DataAggregationInfo aggregationInfo, int index) {
+        long slot = aggregationInfo.getSlot();
+        return aggregationInfo.getFilter().isAll()
+                && slotCache.isCompleted(slot, aggregationInfo.getStartTime() + index * slot);
+    }
+
+    /**
+     * @param streamedFrom index of the first slot which is not in the slot maps but streamed
+     * @param streamed streamed slots of the cell, empty if the cell is not in them
+     */
+    private static PMData merge(String cellId, List<SortedMap<String, PerformanceData>> slots, int streamedFrom,
+            List<PerformanceData> streamed, MeasurementFilter filter) {
+        List<PerformanceData> performance = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            Map<String, PerformanceData> cellsOfSlot = slots.get(i);
+            if (cellsOfSlot != null) {
+                performance.add(project(cellsOfSlot.get(cellId), filter));
+            } else {
+                performance.add(project(i - streamedFrom < streamed.size() ? streamed.get(i - streamedFrom) : null, filter));
+            }
+        }
+        return new PMData(cellId, performance);
+    }
+
+    private static PerformanceData project(PerformanceData performance, MeasurementFilter filter) {
+        if (performance == null) {
+            return new PerformanceData(null, null);
+        }
+        if (filter.getMetrics() == null) {
+            return performance;
+        }
+        return new PerformanceData(
+                filter.acceptsMetric(MeasurementColumns.LATENCY_FIELD_NAME) ? performance.getLatency() : null,
+                filter.acceptsMetric(MeasurementColumns.THROUGHPUT_FIELD_NAME) ? performance.getThroughput() : null);
+    }
+
+    private void aggregateSlots(DataAggregationInfo aggregationInfo, int from, int to,
+            List<SortedMap<String, PerformanceData>> slots) {
+        long slot = aggregationInfo.getSlot();
+        for (int i = from; i < to; i++) {
+            slots.set(i, new TreeMap<>());
+        }
+        aggregate(slotsOf(aggregationInfo, from, to)).forEach(pmData -> {
+            List<PerformanceData> performance = pmData.getPerformance();
+            for (int i = 0; i < Math.min(performance.size(), to - from); i++) {
+                slots.get(from + i).put(pmData.getCellId(), performance.get(i));
+            }
+        });
+        if (!aggregationInfo.getFilter().isAll()) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            slotCache.put(slot, aggregationInfo.getStartTime() + i * slot, slots.get(i));
+        }
+    }
+
+    private static DataAggregationInfo slotsOf(DataAggregationInfo aggregationInfo, int from, int to) {
+        long slot = aggregationInfo.getSlot();
+        long startTime = aggregationInfo.getStartTime() + from * slot;
+        return DataAggregationInfo.builder()
+                .slot(aggregationInfo.getSlot())
+                .startTime(startTime)
+                .endTime(startTime + (to - from) * slot)
+                .filter(aggregationInfo.getFilter())
+                .build();
+    }
+
+    /**
+     * Merges the sorted cells of the slot maps, every accepted cell is returned once in the order of cell identifiers
+     */
+    private static final class CachedCells {
+
+        private final List<Iterator<String>> slots = new ArrayList<>();
+        private final List<String> heads = new ArrayList<>();
+        private final MeasurementFilter filter;
+        private String next;
+
+        CachedCells(List<SortedMap<String, PerformanceData>> slots, MeasurementFilter filter) {
+            this.filter = filter;
+            slots.stream().filter(Objects::nonNull).forEach(cellsOfSlot -> {
+                Iterator<String> cells = cellsOfSlot.keySet().iterator();
+                this.slots.add(cells);
+                heads.add(cells.hasNext() ? cells.next() : null);
+            });
+            advance();
+        }
+
+        /**
+         * @param cellId upper bound, null for none
+         * @return true=there is a cell before the upper bound
+         */
+        boolean hasNextBefore(String cellId) {
+            return next != null && (cellId == null || next.compareTo(cellId) < 0);
+        }
+
+        String next() {
+            String cellId = next;
+            advance();
+            return cellId;
+        }
+
+        /**
+         * Skips the cell if it is the next one, it is passed on with the streamed slots
+         */
+        void skip(String cellId) {
+            if (cellId.equals(next)) {
+                advance();
+            }
+        }
+
+        private void advance() {
+            do {
+                String previous = next;
+                next = null;
+                for (int i = 0; i < heads.size(); i++) {
+                    String head = heads.get(i);
+                    if (head != null && head.equals(previous)) {
+                        head = slots.get(i).hasNext() ? slots.get(i).next() : null;
+                        heads.set(i, head);
+                    }
+                    if (head != null && (next == null || head.compareTo(next) < 0)) {
+                        next = head;
+                    }
+                }
+            } while (next != null && !filter.acceptsCell(next));
+        }
+    }
+
+    /**
+     * Rollups are complete only for base slots ending before the hot store coverage, events of later slots may still
+     * be waiting to be written. Events stored without typed columns have no rollups and are visited instead.
+     *
+     * @param aggregationInfo requested window
+     * @return end of the window prefix merged from rollups, not after the window start if rollups do not answer it
+     */
+    private long rollupsEnd(DataAggregationInfo aggregationInfo) {
+        if (!rollups.canAnswer(aggregationInfo)) {
+            return aggregationInfo.getStartTime();
+        }
+        return Math.min(aggregationInfo.getEndTime(), rollups.slotStartOf(hotStore.coveredFrom()));
+    }
+
+    /**
+     * With the slot cache the window start is aligned down to a multiple of the slot, so the slots of consecutive
+     * requests are the same and completed slots can be reused
+     */
+    private DataAggregationInfo buildDataAggregationInfo(int slot, int count, OffsetDateTime startTime,
+            MeasurementFilter filter) {
+        long timeIntervalStartTime = getWindowStartTime(slot, startTime);
         long timeIntervalEndTime = getTimeIntervalEndTime(slot, count, timeIntervalStartTime);
         return DataAggregationInfo.builder()
                 .startTime(timeIntervalStartTime)
                 .endTime(timeIntervalEndTime)
                 .slot(slot * MICRO_SECONDS_OF_SECOND)
+                .filter(filter)
                 .build();
     }
 
+    private long getWindowStartTime(int slot, OffsetDateTime startTime) {
+        long timeIntervalStartTime = startTime.toEpochSecond() * MICRO_SECONDS_OF_SECOND;
+        if (slotCache.isEnabled() && slot > 0) {
+            long slotMicrosec = (long) slot * MICRO_SECONDS_OF_SECOND;
+            timeIntervalStartTime = Math.floorDiv(timeIntervalStartTime, slotMicrosec) * slotMicrosec;
+        }
+        return timeIntervalStartTime;
+    }
+
     private long getTimeIntervalEndTime(int slot, int count, long startDate) {
         BigInteger timeIntervalMicrosec = BigInteger.valueOf(slot).multiply(BigInteger.valueOf(count)).multiply(BigInteger.valueOf(MICRO_SECONDS_OF_SECOND));
         return startDate + timeIntervalMicrosec.longValue();
     }
 
-    private Map<String, List<Event>> groupByCell(List<EventAPI> events) {
-        return events.stream().flatMap(e -> parser.getParsedEvents(e.getRawdata()).stream())
-                .collect(Collectors.groupingBy(this::getCellFromVes));
+    /**
+     * Passes the measurements of the window to the visitor, the part of the window covered by the hot store is read
+     * from memory and only the older part from the database
+     *
+     * @param startTime window start in microseconds
+     * @param endTime window end in microseconds
+     * @param filter cells and metrics to read
+     * @param visitor measurement visitor
+     */
+    private void visitMeasurements(long startTime, long endTime, MeasurementFilter filter, MeasurementVisitor visitor) {
+        long hotFrom = hotStore.coveredFrom();
+        if (startTime >= hotFrom) {
+            hotStore.forEach(startTime, endTime, filter, visitor);
+            return;
+        }
+        visitStoredMeasurements(startTime, Math.min(endTime, hotFrom - 1), filter, visitor);
+        if (endTime >= hotFrom) {
+            hotStore.forEach(hotFrom, endTime, filter, visitor);
+        }
     }
 
-    private String getCellFromVes(Event event) {
-        AdditionalMeasurements cellField = event.getMeasurementFields().getAdditionalMeasurements()
-                .stream().filter(am -> am.getName().equals(CELL_FIELD_NAME)).findAny().orElseThrow();
-        return cellField.getValues().get(CELL_INDEX).getParameterValue();
+    /**
+     * Streams typed columns of the events in the window. Events stored without typed columns are parsed, events derived
+     * from one FileReady event share one payload, which is parsed only once. The cells of untyped events are known
+     * only once they are parsed, so they are filtered by the visitor.
+     *
+     * @param startTime window start in microseconds
+     * @param endTime window end in microseconds
+     * @param filter cells and metrics to read
+     * @param visitor measurement visitor
+     */
+    private void visitStoredMeasurements(long startTime, long endTime, MeasurementFilter filter, MeasurementVisitor visitor) {
+        vesPersisterSql.forEachMeasurementInTimeWindow(startTime, endTime, filter, visitor);
+        visitUntypedMeasurements(startTime, endTime, visitor);
     }
 
-    private List<PMData> calculateAggregatedData(DataAggregationInfo dataAggregationInfo, Map<String, List<Event>> events) {
-        return events.entrySet().stream()
-                .map(e -> aggregationService.getAggregatedDataFromEventsForCell(e.getKey(), e.getValue(), dataAggregationInfo))
-                .collect(Collectors.toList());
+    /**
+     * Parses the events in the window which were stored without typed columns, events derived from one FileReady event
+     * share one payload, which is parsed only once
+     *
+     * @param startTime window start in microseconds
+     * @param endTime window end in microseconds
+     * @param visitor measurement visitor
+     */
+    private void visitUntypedMeasurements(long startTime, long endTime, MeasurementVisitor visitor) {
+        Set<Long> payloadIds = new HashSet<>();
+        vesPersisterSql.forEachUntypedEventInTimeWindow(startTime, endTime, event -> {
+            if (event.getPayloadId() != null) {
+                payloadIds.add(event.getPayloadId());
+            } else {
+                visitParsedEvents(event.getRawdata(), visitor);
+            }
+        });
+        List<Long> ids = new ArrayList<>(payloadIds);
+        for (int from = 0; from < ids.size(); from += PAYLOAD_CHUNK_SIZE) {
+            vesPersisterSql.findPayloadsByIds(ids.subList(from, Math.min(ids.size(), from + PAYLOAD_CHUNK_SIZE)))
+                    .forEach(payload -> visitParsedEvents(payload.payload, visitor));
+        }
     }
 
+    private void visitParsedEvents(String rawEvent, MeasurementVisitor visitor) {
+        parser.getParsedEvents(rawEvent).stream().map(MeasurementColumns::toRecord).forEach(visitor::visit);
+    }
 }
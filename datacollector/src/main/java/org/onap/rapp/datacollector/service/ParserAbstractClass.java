@@ -16,6 +16,8 @@ package org.onap.rapp.datacollector.service;
 
 import static java.util.Objects.nonNull;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Optional;
 
 import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
@@ -24,6 +26,9 @@ import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 public abstract class ParserAbstractClass {
 
@@ -31,25 +36,51 @@ public abstract class ParserAbstractClass {
     public static final String FILE_READY_EVENT_UNIQUE_ELEMENT = "perf3gppFields";
     public static final String EVENT_JSON_ELEMENT_NAME = "event";
     public static final String COMMON_EVENT_HEADER = "commonEventHeader";
+    public static final int EVENT_TYPE_SNIFF_LIMIT = 4096;
 
     /**
-     * Scans the Json Object if contains VES_EVENT_UNIQUE_ELEMENT
+     * Finds out the event type by streaming over the json until VES_EVENT_UNIQUE_ELEMENT or FILE_READY_EVENT_UNIQUE_ELEMENT
+     * is found in the Event json element. Only the first EVENT_TYPE_SNIFF_LIMIT characters are scanned, the whole json is
+     * scanned only when the unique element lies behind them.
      *
-     * @param obj json object
-     * @return true=it is VES event, false=not VES event
+     * @param eventString json event in string
+     * @return name of the unique element, empty=not supported event
      */
-    protected boolean isVesEvent(JsonObject obj) {
-        return getEventJsonObject(obj).filter(jsonObject -> jsonObject.has(VES_EVENT_UNIQUE_ELEMENT)).isPresent();
+    protected static Optional<String> sniffEventType(String eventString) {
+        if (eventString.length() > EVENT_TYPE_SNIFF_LIMIT) {
+            try {
+                return findEventTypeElement(new JsonReader(new StringReader(eventString.substring(0, EVENT_TYPE_SNIFF_LIMIT))));
+            } catch (IOException e) {
+                // the prefix ended before the unique element, scan the whole json below
+            }
+        }
+        try {
+            return findEventTypeElement(new JsonReader(new StringReader(eventString)));
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
     }
 
-    /**
-     * Scans the Json Object if contains FILE_READY_EVENT_UNIQUE_ELEMENT
-     *
-     * @param obj json object
-     * @return true=it is FileReadyEvent event, false=not FileReadyEvent
-     */
-    protected boolean isFileReadyEvent(JsonObject obj) {
-        return getEventJsonObject(obj).filter(jsonObject -> jsonObject.has(FILE_READY_EVENT_UNIQUE_ELEMENT)).isPresent();
+    private static Optional<String> findEventTypeElement(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return Optional.empty();
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (EVENT_JSON_ELEMENT_NAME.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (VES_EVENT_UNIQUE_ELEMENT.equals(name) || FILE_READY_EVENT_UNIQUE_ELEMENT.equals(name)) {
+                        return Optional.of(name);
+                    }
+                    reader.skipValue();
+                }
+                return Optional.empty();
+            }
+            reader.skipValue();
+        }
+        return Optional.empty();
     }
 
     /**
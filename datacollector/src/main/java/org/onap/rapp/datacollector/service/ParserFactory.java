@@ -14,15 +14,13 @@
 package org.onap.rapp.datacollector.service;
 
 import java.util.List;
+import java.util.Map;
 
 import org.onap.rapp.datacollector.entity.ves.Event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 
 /**
@@ -32,25 +30,26 @@ import com.google.gson.JsonParseException;
 public class ParserFactory extends ParserAbstractClass {
 
     private static final Logger logger = LoggerFactory.getLogger(ParserFactory.class);
-    private final VesParserImpl vesParser;
-    private final FileReadyParserImpl fileReadyParser;
+    private final Map<String, VesParser> parsers;
 
     public ParserFactory(VesParserImpl vesParser, FileReadyParserImpl fileReadyParser) {
-        this.vesParser = vesParser;
-        this.fileReadyParser = fileReadyParser;
+        this.parsers = Map.of(
+                FILE_READY_EVENT_UNIQUE_ELEMENT, fileReadyParser,
+                VES_EVENT_UNIQUE_ELEMENT, vesParser);
     }
 
+    /**
+     * Parse incoming Json string into list of Events, the parser is chosen by the unique element of the event
+     * so the json is tokenized only once, by the parser itself
+     *
+     * @param eventString json event in string
+     * @return list of events
+     */
     public List<Event> getParsedEvents(String eventString) {
-        JsonObject json = gson.fromJson(eventString, JsonObject.class);
-        if (isFileReadyEvent(json)) {
-            return fileReadyParser.parse(eventString);
-        } else if (isVesEvent(json)) {
-            return vesParser.parse(eventString);
-        } else {
+        VesParser parser = sniffEventType(eventString).map(parsers::get).orElseThrow(() -> {
             logger.error("Not supported event structure {}", eventString);
-            throw new JsonParseException("Not supported event structure");
-        }
+            return new JsonParseException("Not supported event structure");
+        });
+        return parser.parse(eventString);
     }
-
-    private final Gson gson = new GsonBuilder().create();
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads all measurements topics once per fixed rate tick, used in the "scheduled" consumer mode
+ */
+@Service
+@ConditionalOnProperty(prefix = "dmaap", name = "consumer-mode", havingValue = "scheduled")
+public class ScheduledVesPoller {
+
+    private final VesRetrievalService retrievalService;
+
+    public ScheduledVesPoller(VesRetrievalService retrievalService) {
+        this.retrievalService = retrievalService;
+    }
+
+    @Scheduled(fixedRate = 5000)
+    public void retrieveAndStoreVesEvents() {
+        retrievalService.retrieveAndStoreVesEvents();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.onap.rapp.datacollector.entity.DataAggregationInfo;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.pm.MetricRollup;
+import org.onap.rapp.datacollector.entity.pm.PMData;
+import org.onap.rapp.datacollector.entity.pm.PerformanceData;
+
+/**
+ * Aggregates the measurements of a window in one pass. The slot of a measurement is computed from its timestamp, and
+ * metric values are summed and counted in primitive arrays per cell, so memory depends on cells and slots only and
+ * measurements may come in any order.
+ * A slot holds measurements with timestamp in (slot start, slot end], measurements before the window start are taken
+ * into the first slot and measurements after the window end are skipped. Measurements of cells which are not filtered
+ * are skipped and metrics which are not filtered are not summed up. Base slot rollups, which hold the same range of
+ * timestamps, are merged into the slot they are part of.
+ */
+final class SlotAggregator implements MeasurementVisitor {
+
+    private static final int LATENCY = 0;
+    private static final int THROUGHPUT = 1;
+    private static final int METRICS = 2;
+
+    private final long startTime;
+    private final long slot;
+    private final int slots;
+    private final MeasurementFilter filter;
+    private final boolean latencyRequested;
+    private final boolean throughputRequested;
+    private final Map<String, CellSlots> cells = new HashMap<>();
+
+    SlotAggregator(DataAggregationInfo aggregationInfo) {
+        this.startTime = aggregationInfo.getStartTime();
+        this.slot = aggregationInfo.getSlot();
+        this.slots = (int) Math.max(1, (aggregationInfo.getEndTime() - startTime + slot - 1) / slot);
+        this.filter = aggregationInfo.getFilter();
+        this.latencyRequested = filter.acceptsMetric(MeasurementColumns.LATENCY_FIELD_NAME);
+        this.throughputRequested = filter.acceptsMetric(MeasurementColumns.THROUGHPUT_FIELD_NAME);
+    }
+
+    @Override
+    public void visit(String cellId, long lastEpochMicrosec, int latency, int throughput) {
+        int index = lastEpochMicrosec <= startTime ? 0 : (int) Math.min(slots, (lastEpochMicrosec - startTime - 1) / slot);
+        if (index == slots || !filter.acceptsCell(cellId)) {
+            return;
+        }
+        CellSlots cell = cells.computeIfAbsent(cellId, id -> new CellSlots(slots));
+        if (latencyRequested) {
+            cell.add(index * METRICS + LATENCY, latency);
+        }
+        if (throughputRequested) {
+            cell.add(index * METRICS + THROUGHPUT, throughput);
+        }
+    }
+
+    /**
+     * Merges the sum and count of a base slot rollup, rollups outside the window or of cells and metrics which are not
+     * filtered are skipped
+     *
+     * @param rollup rollup of a base slot starting at or after the window start
+     */
+    void merge(MetricRollup rollup) {
+        long offset = rollup.getSlotStart() - startTime;
+        int metric = metricIndex(rollup.getMetric());
+        if (offset < 0 || offset / slot >= slots || metric < 0 || !filter.acceptsCell(rollup.getCellId())) {
+            return;
+        }
+        cells.computeIfAbsent(rollup.getCellId(), id -> new CellSlots(slots))
+                .merge((int) (offset / slot) * METRICS + metric, rollup.getSum(), rollup.getCount());
+    }
+
+    private int metricIndex(String metric) {
+        if (latencyRequested && MeasurementColumns.LATENCY_FIELD_NAME.equals(metric)) {
+            return LATENCY;
+        }
+        if (throughputRequested && MeasurementColumns.THROUGHPUT_FIELD_NAME.equals(metric)) {
+            return THROUGHPUT;
+        }
+        return -1;
+    }
+
+    /**
+     * @return sorted identifiers of the cells which had a measurement in the window
+     */
+    List<String> getCellIds() {
+        List<String> cellIds = new ArrayList<>(cells.keySet());
+        Collections.sort(cellIds);
+        return cellIds;
+    }
+
+    /**
+     * Average metrics per slot of the cell, cells may be read concurrently once all measurements are visited
+     *
+     * @param cellId cell identifier
+     * @return aggregated data of the cell
+     */
+    PMData getAggregatedData(String cellId) {
+        CellSlots cell = cells.get(cellId);
+        List<PerformanceData> performance = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            performance.add(new PerformanceData(cell.average(i * METRICS + LATENCY), cell.average(i * METRICS + THROUGHPUT)));
+        }
+        return new PMData(cellId, performance);
+    }
+
+    /**
+     * Sums and counts of every metric and slot of one cell, indexed by slot * METRICS + metric
+     */
+    private static final class CellSlots {
+
+        private final long[] sums;
+        private final long[] counts;
+
+        CellSlots(int slots) {
+            this.sums = new long[slots * METRICS];
+            this.counts = new long[slots * METRICS];
+        }
+
+        void add(int index, int value) {
+            if (value != MISSING) {
+                sums[index] += value;
+                counts[index]++;
+            }
+        }
+
+        void merge(int index, long sum, long count) {
+            sums[index] += sum;
+            counts[index] += count;
+        }
+
+        Integer average(int index) {
+            return counts[index] == 0 ? null : (int) (sums[index] / (double) counts[index]);
+        }
+    }
+}
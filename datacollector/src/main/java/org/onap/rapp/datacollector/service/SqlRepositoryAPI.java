@@ -27,5 +27,8 @@ public interface SqlRepositoryAPI extends CrudRepository<EventAPI, Long> {
     @Query(value = "SELECT * FROM ves_measurement order by id desc limit :limit", nativeQuery = true)
     List<EventAPI> findTopNVesEvent(@Param("limit") int limit);
 
+    /**
+     * Range predicate on the partitioning column, only partitions overlapping the window are read
+     */
     List<EventAPI> findByLastEpochMicrosecBetweenOrderByLastEpochMicrosecAsc(Long startTime, Long endTime);
 }
@@ -14,13 +14,13 @@
 package org.onap.rapp.datacollector.service;
 
 import org.springframework.stereotype.Service;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class UEHolder {
 
-    private Set<String> ues = new HashSet<>();
+    private Set<String> ues = ConcurrentHashMap.newKeySet();
 
     public void addUE(String ue) {
         ues.add(ue);
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurementValues;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inserts events with JDBC batches, one batch per table, instead of one round trip per row.
+ * The rows written are the same as Spring Data JDBC writes for the Event aggregate.
+ */
+@Component
+public class VesBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VesBatchWriter.class);
+
+    static final String INSERT_EVENT = "INSERT INTO ves_measurement (event_type, version, source_id, reporting_entity_name, "
+            + "start_epoch_microsec, event_id, last_epoch_microsec, priority, sequence, source_name, domain, event_name, "
+            + "reporting_entity_id, nfc_naming_code, nf_naming_code, rawdata, payload_id, cell_id, latency, throughput, typed) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_MEASUREMENT_FIELDS = "INSERT INTO ves_measurement_fields (event_id, measurement_interval, "
+            + "last_epoch_microsec) VALUES (?, ?, ?)";
+    static final String INSERT_ADDITIONAL_MEASUREMENT = "INSERT INTO additional_measurement (event_id, am_name, ves_measurement_fields_key, "
+            + "last_epoch_microsec) VALUES (?, ?, ?, ?)";
+    static final String INSERT_ADDITIONAL_MEASUREMENT_VALUE = "INSERT INTO additional_measurement_value (event, am_name, "
+            + "additional_measurement_key, ves_measurement_fields_key, am_key, am_value, last_epoch_microsec) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DISABLE_CHECKS = "SET SESSION foreign_key_checks = 0, unique_checks = 0";
+    private static final String ENABLE_CHECKS = "SET SESSION foreign_key_checks = 1, unique_checks = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProperties databaseProperties;
+    private final MetricRollupRepository rollups;
+
+    public VesBatchWriter(JdbcTemplate jdbcTemplate, DatabaseProperties databaseProperties, MetricRollupRepository rollups) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProperties = databaseProperties;
+        this.rollups = rollups;
+    }
+
+    /**
+     * Inserts the events and all their child rows on the connection of the current transaction and adds their metric
+     * values to the rollups, generated ids are set to the events
+     *
+     * @param events events to be inserted
+     */
+    public void insert(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((Connection connection) -> {
+            boolean bulkLoad = databaseProperties.isBulkLoad();
+            if (bulkLoad) {
+                execute(connection, DISABLE_CHECKS);
+            }
+            try {
+                insertEvents(connection, events);
+                insertChildren(connection, events);
+                if (rollups.isEnabled()) {
+                    rollups.upsert(connection, events);
+                }
+            } finally {
+                if (bulkLoad) {
+                    execute(connection, ENABLE_CHECKS);
+                }
+            }
+            logger.debug("{} events inserted", events.size());
+            return null;
+        });
+    }
+
+    private void insertEvents(Connection connection, List<Event> events) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_EVENT, Statement.RETURN_GENERATED_KEYS)) {
+            for (Event event : events) {
+                CommonEventHeader header = event.commonEventHeader;
+                statement.setString(1, header.getEventType());
+                statement.setString(2, header.getVersion());
+                statement.setString(3, header.getSourceId());
+                statement.setString(4, header.getReportingEntityName());
+                statement.setObject(5, header.getStartEpochMicrosec(), Types.BIGINT);
+                statement.setString(6, header.getEventId());
+                statement.setObject(7, header.getLastEpochMicrosec(), Types.BIGINT);
+                statement.setString(8, header.getPriority());
+                statement.setObject(9, header.getSequence(), Types.INTEGER);
+                statement.setString(10, header.getSourceName());
+                statement.setString(11, header.getDomain());
+                statement.setString(12, header.getEventName());
+                statement.setString(13, header.getReportingEntityId());
+                statement.setString(14, header.getNfcNamingCode());
+                statement.setString(15, header.getNfNamingCode());
+                statement.setString(16, event.raw);
+                statement.setObject(17, event.payloadId, Types.INTEGER);
+                statement.setString(18, event.cellId);
+                statement.setObject(19, event.latency, Types.INTEGER);
+                statement.setObject(20, event.throughput, Types.INTEGER);
+                statement.setBoolean(21, event.typed);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                int index = 0;
+                while (keys.next() && index < events.size()) {
+                    events.get(index++).setId(keys.getLong(1));
+                }
+                if (index != events.size()) {
+                    throw new DataRetrievalFailureException(
+                            String.format("Expected %d generated keys, but got %d", events.size(), index));
+                }
+            }
+        }
+    }
+
+    private void insertChildren(Connection connection, List<Event> events) throws SQLException {
+        try (PreparedStatement fieldsStatement = connection.prepareStatement(INSERT_MEASUREMENT_FIELDS);
+                PreparedStatement measurementStatement = connection.prepareStatement(INSERT_ADDITIONAL_MEASUREMENT);
+                PreparedStatement valueStatement = connection.prepareStatement(INSERT_ADDITIONAL_MEASUREMENT_VALUE)) {
+            for (Event event : events) {
+                if (event.measurementFields == null) {
+                    continue;
+                }
+                Long lastEpochMicrosec = event.commonEventHeader.getLastEpochMicrosec();
+                fieldsStatement.setLong(1, event.getId());
+                fieldsStatement.setLong(2, event.measurementFields.getMeasurementInterval());
+                fieldsStatement.setObject(3, lastEpochMicrosec, Types.BIGINT);
+                fieldsStatement.addBatch();
+                List<AdditionalMeasurements> additionalMeasurements = event.measurementFields.getAdditionalMeasurements();
+                for (int measurementKey = 0; measurementKey < additionalMeasurements.size(); measurementKey++) {
+                    AdditionalMeasurements measurement = additionalMeasurements.get(measurementKey);
+                    measurementStatement.setLong(1, event.getId());
+                    measurementStatement.setString(2, measurement.getName());
+                    measurementStatement.setInt(3, measurementKey);
+                    measurementStatement.setObject(4, lastEpochMicrosec, Types.BIGINT);
+                    measurementStatement.addBatch();
+                    List<AdditionalMeasurementValues> values = measurement.getValues();
+                    for (int valueKey = 0; valueKey < values.size(); valueKey++) {
+                        AdditionalMeasurementValues value = values.get(valueKey);
+                        valueStatement.setLong(1, event.getId());
+                        valueStatement.setString(2, value.getName());
+                        valueStatement.setInt(3, valueKey);
+                        valueStatement.setInt(4, measurementKey);
+                        valueStatement.setString(5, value.getParameterName());
+                        valueStatement.setString(6, value.getParameterValue());
+                        valueStatement.setObject(7, lastEpochMicrosec, Types.BIGINT);
+                        valueStatement.addBatch();
+                    }
+                }
+            }
+            fieldsStatement.executeBatch();
+            measurementStatement.executeBatch();
+            valueStatement.executeBatch();
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
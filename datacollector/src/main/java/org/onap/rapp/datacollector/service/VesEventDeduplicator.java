@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.COMMON_EVENT_HEADER;
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.EVENT_JSON_ELEMENT_NAME;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Drops events redelivered by DMaaP or resent by PM Mapper. Events are identified by sourceName, eventId and sequence
+ * of their common event header, which is read from the raw json before the event is parsed. Identities seen within
+ * the deduplication window are kept in two rotating Bloom filters backed by an exact LRU of the latest identities,
+ * an event is dropped only when the exact LRU confirms what the Bloom filters suggest.
+ */
+@Component
+public class VesEventDeduplicator {
+
+    private static final String EVENT_ID = "eventId";
+    private static final String SEQUENCE = "sequence";
+    private static final String SOURCE_NAME = "sourceName";
+
+    private final IngestProperties.Deduplication config;
+    private final Counter duplicates;
+    private final LongSupplier clock;
+    private final Map<String, Long> recent;
+
+    private BloomFilter current;
+    private BloomFilter previous;
+    private long rotatedAt;
+
+    @Autowired
+    public VesEventDeduplicator(IngestProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    VesEventDeduplicator(IngestProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.config = properties.getDeduplication();
+        this.duplicates = Counter.builder("ves.ingest.duplicates")
+                .description("Events dropped as duplicates before parsing")
+                .register(meterRegistry);
+        this.clock = clock;
+        int exactSize = config.getExactSize();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > exactSize;
+            }
+        };
+        this.current = newBloomFilter();
+        this.previous = newBloomFilter();
+        this.rotatedAt = clock.getAsLong();
+    }
+
+    /**
+     * Checks if an event with the same identity was already seen within the window, the event is remembered otherwise.
+     * Events without identity are never reported as duplicates.
+     *
+     * @param rawEvent json event in string
+     * @return true=duplicate, should be dropped
+     */
+    public boolean isDuplicate(String rawEvent) {
+        if (!config.isEnabled()) {
+            return false;
+        }
+        return sniffIdentity(rawEvent).map(this::isDuplicateIdentity).orElse(false);
+    }
+
+    /**
+     * Forgets a raw event which could not be parsed, so it is accepted again when redelivered
+     *
+     * @param rawEvent json event in string
+     */
+    public void forget(String rawEvent) {
+        if (config.isEnabled()) {
+            sniffIdentity(rawEvent).ifPresent(this::forgetIdentity);
+        }
+    }
+
+    /**
+     * Forgets a parsed event which could not be persisted, so it is accepted again when redelivered
+     *
+     * @param header common event header of the event
+     */
+    public void forget(CommonEventHeader header) {
+        if (config.isEnabled() && header != null && header.getEventId() != null) {
+            forgetIdentity(header.getSourceName() + '|' + header.getEventId() + '|' + header.getSequence());
+        }
+    }
+
+    synchronized void forgetIdentity(String identity) {
+        recent.remove(identity);
+    }
+
+    synchronized boolean isDuplicateIdentity(String identity) {
+        long now = clock.getAsLong();
+        rotate(now);
+        if (current.mightContain(identity) || previous.mightContain(identity)) {
+            Long seenAt = recent.get(identity);
+            if (seenAt != null && now - seenAt <= config.getWindow()) {
+                duplicates.increment();
+                return true;
+            }
+        }
+        current.put(identity);
+        recent.put(identity, now);
+        return false;
+    }
+
+    /**
+     * Every window the older Bloom filter is dropped, so identities are remembered for at least the whole window,
+     * the exact LRU keeps reporting only those seen within the window
+     */
+    private void rotate(long now) {
+        long window = Math.max(1, config.getWindow());
+        long elapsed = now - rotatedAt;
+        if (elapsed >= window) {
+            previous = elapsed >= 2 * window ? newBloomFilter() : current;
+            current = newBloomFilter();
+            rotatedAt = now;
+        }
+    }
+
+    private BloomFilter newBloomFilter() {
+        return new BloomFilter(config.getExpectedEvents(), config.getFalsePositiveRate());
+    }
+
+    /**
+     * Reads sourceName, eventId and sequence from the common event header, without parsing the rest of the event
+     *
+     * @param rawEvent json event in string
+     * @return identity of the event, empty=event has no eventId or is not a json object
+     */
+    static Optional<String> sniffIdentity(String rawEvent) {
+        try (JsonReader reader = new JsonReader(new StringReader(rawEvent))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return Optional.empty();
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (EVENT_JSON_ELEMENT_NAME.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (COMMON_EVENT_HEADER.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                            return readIdentity(reader);
+                        }
+                        reader.skipValue();
+                    }
+                    return Optional.empty();
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // malformed events are reported by the parser
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> readIdentity(JsonReader reader) throws IOException {
+        String eventId = null;
+        String sequence = null;
+        String sourceName = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.STRING || reader.peek() == JsonToken.NUMBER) {
+                if (EVENT_ID.equals(name)) {
+                    eventId = reader.nextString();
+                } else if (SEQUENCE.equals(name)) {
+                    sequence = reader.nextString();
+                } else if (SOURCE_NAME.equals(name)) {
+                    sourceName = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        return eventId == null ? Optional.empty() : Optional.of(sourceName + '|' + eventId + '|' + sequence);
+    }
+
+    /**
+     * Bloom filter of strings, bit positions are derived from one 64 bit FNV-1a hash by double hashing
+     */
+    static final class BloomFilter {
+
+        private final long[] bits;
+        private final int bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            int expected = Math.max(1, expectedInsertions);
+            long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.max(Long.SIZE, Math.min(optimalBits, Integer.MAX_VALUE - Long.SIZE));
+            this.bits = new long[(bitCount + Long.SIZE - 1) / Long.SIZE];
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            for (int i = 1; i <= hashCount; i++) {
+                int index = index(hash, i);
+                bits[index >>> 6] |= 1L << index;
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            for (int i = 1; i <= hashCount; i++) {
+                int index = index(hash, i);
+                if ((bits[index >>> 6] & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(long hash, int i) {
+            int combined = (int) hash + i * (int) (hash >>> 32);
+            return (combined & Integer.MAX_VALUE) % bitCount;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.COMMON_EVENT_HEADER;
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.EVENT_JSON_ELEMENT_NAME;
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.VES_EVENT_UNIQUE_ELEMENT;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurementValues;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming adapter which builds VES measurement Event directly from json tokens, without building json tree first.
+ * Events are written back in the same VES layout, limited to the fields which are read.
+ */
+class VesEventTypeAdapter extends TypeAdapter<Event> {
+
+    private static final Logger logger = LoggerFactory.getLogger(VesEventTypeAdapter.class);
+
+    private static final String ADDITIONAL_MEASUREMENTS = "additionalMeasurements";
+    private static final String MEASUREMENT_INTERVAL = "measurementInterval";
+    private static final String NAME = "name";
+    private static final String HASH_MAP = "hashMap";
+
+    @Override
+    public void write(JsonWriter out, Event event) throws IOException {
+        out.beginObject();
+        out.name(EVENT_JSON_ELEMENT_NAME).beginObject();
+        if (event.commonEventHeader != null) {
+            out.name(COMMON_EVENT_HEADER);
+            writeHeader(out, event.commonEventHeader);
+        }
+        if (event.measurementFields != null) {
+            out.name(VES_EVENT_UNIQUE_ELEMENT);
+            writeMeasurementFields(out, event.measurementFields);
+        }
+        out.endObject();
+        out.endObject();
+    }
+
+    private void writeHeader(JsonWriter out, CommonEventHeader header) throws IOException {
+        out.beginObject();
+        out.name("eventType").value(header.getEventType());
+        out.name("version").value(header.getVersion());
+        out.name("sourceId").value(header.getSourceId());
+        out.name("reportingEntityName").value(header.getReportingEntityName());
+        out.name("startEpochMicrosec").value(header.getStartEpochMicrosec());
+        out.name("eventId").value(header.getEventId());
+        out.name("lastEpochMicrosec").value(header.getLastEpochMicrosec());
+        out.name("priority").value(header.getPriority());
+        out.name("sequence").value(header.getSequence());
+        out.name("sourceName").value(header.getSourceName());
+        out.name("domain").value(header.getDomain());
+        out.name("eventName").value(header.getEventName());
+        out.name("reportingEntityId").value(header.getReportingEntityId());
+        out.name("nfcNamingCode").value(header.getNfcNamingCode());
+        out.name("nfNamingCode").value(header.getNfNamingCode());
+        out.name("timeZoneOffset").value(header.timeZoneOffset);
+        out.endObject();
+    }
+
+    private void writeMeasurementFields(JsonWriter out, MeasurementFields measurementFields) throws IOException {
+        out.beginObject();
+        out.name(MEASUREMENT_INTERVAL).value(measurementFields.getMeasurementInterval());
+        out.name(ADDITIONAL_MEASUREMENTS).beginArray();
+        for (AdditionalMeasurements measurements : measurementFields.getAdditionalMeasurements()) {
+            out.beginObject();
+            out.name(NAME).value(measurements.getName());
+            out.name(HASH_MAP).beginObject();
+            for (AdditionalMeasurementValues value : measurements.getValues()) {
+                out.name(value.getParameterName()).value(value.getParameterValue());
+            }
+            out.endObject();
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public Event read(JsonReader in) throws IOException {
+        CommonEventHeader header = null;
+        MeasurementFields measurementFields = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if (EVENT_JSON_ELEMENT_NAME.equals(in.nextName()) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (COMMON_EVENT_HEADER.equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                        header = readHeader(in);
+                    } else if (VES_EVENT_UNIQUE_ELEMENT.equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                        measurementFields = readMeasurementFields(in);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (header == null) {
+            throw new JsonParseException("Common header not found");
+        }
+        if (measurementFields == null) {
+            logger.error("MeasurementFields was not found {}", header);
+            throw new JsonParseException("MeasurementFields was not found");
+        }
+        return Event.of(header, measurementFields);
+    }
+
+    private CommonEventHeader readHeader(JsonReader in) throws IOException {
+        CommonEventHeader.CommonEventHeaderBuilder header = CommonEventHeader.builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "eventType":
+                    header.eventType(nextString(in));
+                    break;
+                case "version":
+                    header.version(nextString(in));
+                    break;
+                case "sourceId":
+                    header.sourceId(nextString(in));
+                    break;
+                case "reportingEntityName":
+                    header.reportingEntityName(nextString(in));
+                    break;
+                case "startEpochMicrosec":
+                    header.startEpochMicrosec(nextLong(in));
+                    break;
+                case "eventId":
+                    header.eventId(nextString(in));
+                    break;
+                case "lastEpochMicrosec":
+                    header.lastEpochMicrosec(nextLong(in));
+                    break;
+                case "priority":
+                    header.priority(nextString(in));
+                    break;
+                case "sequence":
+                    header.sequence(nextInteger(in));
+                    break;
+                case "sourceName":
+                    header.sourceName(nextString(in));
+                    break;
+                case "domain":
+                    header.domain(nextString(in));
+                    break;
+                case "eventName":
+                    header.eventName(nextString(in));
+                    break;
+                case "reportingEntityId":
+                    header.reportingEntityId(nextString(in));
+                    break;
+                case "nfcNamingCode":
+                    header.nfcNamingCode(nextString(in));
+                    break;
+                case "nfNamingCode":
+                    header.nfNamingCode(nextString(in));
+                    break;
+                case "timeZoneOffset":
+                    header.timeZoneOffset(nextString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return header.build();
+    }
+
+    private MeasurementFields readMeasurementFields(JsonReader in) throws IOException {
+        long measurementInterval = 0;
+        List<AdditionalMeasurements> additionalMeasurements = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (MEASUREMENT_INTERVAL.equals(name) && in.peek() != JsonToken.NULL) {
+                measurementInterval = nextLong(in);
+            } else if (ADDITIONAL_MEASUREMENTS.equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    additionalMeasurements.add(readAdditionalMeasurements(in));
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        logger.trace("additional measurements {}", additionalMeasurements);
+        return MeasurementFields.builder()
+                .measurementInterval(measurementInterval)
+                .additionalMeasurements(additionalMeasurements)
+                .build();
+    }
+
+    private AdditionalMeasurements readAdditionalMeasurements(JsonReader in) throws IOException {
+        String name = null;
+        Map<String, String> hashMap = Collections.emptyMap();
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (NAME.equals(field)) {
+                name = nextString(in);
+            } else if (HASH_MAP.equals(field) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                hashMap = new LinkedHashMap<>();
+                in.beginObject();
+                while (in.hasNext()) {
+                    hashMap.put(in.nextName(), nextString(in));
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return AdditionalMeasurements.builder()
+                .withName(name)
+                .withHashMap(hashMap)
+                .build();
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case BOOLEAN:
+                return Boolean.toString(in.nextBoolean());
+            default:
+                return in.nextString();
+        }
+    }
+
+    private static Long nextLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static Integer nextInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+}
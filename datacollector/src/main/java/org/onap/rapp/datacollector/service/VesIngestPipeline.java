@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurementValues;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Staged ingest pipeline: events fetched from DMaaP are de-duplicated and parsed, enriched and persisted by separate
+ * worker pools connected with bounded queues. A full queue blocks the stage feeding it, so a slow database throttles the pollers.
+ */
+@Service
+public class VesIngestPipeline implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(VesIngestPipeline.class);
+    public static final String UE_FIELD_NAME = "trafficModel";
+    private static final long QUEUE_POLL_TIMEOUT_MS = 200;
+
+    private final ParserFactory parser;
+    private final VesEventDeduplicator deduplicator;
+    private final VesPersister persister;
+    private final UEHolder ueHolder;
+    private final HotMeasurementStore hotStore;
+    private final IngestProperties properties;
+
+    private final Stage<String> parseStage;
+    private final Stage<List<Event>> enrichStage;
+    private final Stage<Event> persistStage;
+
+    private volatile boolean running;
+
+    public VesIngestPipeline(ParserFactory parser, VesEventDeduplicator deduplicator, VesPersister persister, UEHolder ueHolder,
+            HotMeasurementStore hotStore, IngestProperties properties) {
+        this.parser = parser;
+        this.deduplicator = deduplicator;
+        this.persister = persister;
+        this.ueHolder = ueHolder;
+        this.hotStore = hotStore;
+        this.properties = properties;
+        this.parseStage = new Stage<>("parse", properties.getParse(), this::parse);
+        this.enrichStage = new Stage<>("enrich", properties.getEnrich(), this::enrich);
+        this.persistStage = new Stage<>("persist", properties.getPersist(), this::persist);
+    }
+
+    /**
+     * Hands a raw DMaaP event to the pipeline, blocks while the parse queue is full
+     *
+     * @param rawEvent json event in string
+     */
+    public void submit(String rawEvent) {
+        if (!parseStage.open) {
+            throw new IllegalStateException("Ingest pipeline is stopped");
+        }
+        parseStage.put(rawEvent);
+    }
+
+    /**
+     * Queue depths of all stages
+     *
+     * @return status of every stage queue, in pipeline order
+     */
+    public List<StageStatus> getStageStatuses() {
+        return List.of(parseStage.status(), enrichStage.status(), persistStage.status());
+    }
+
+    /**
+     * Checks if any stage queue is filled above the configured saturation level
+     *
+     * @return true=pipeline is saturated
+     */
+    public boolean isSaturated() {
+        return getStageStatuses().stream()
+                .anyMatch(status -> status.getSize() * 100L >= (long) status.getCapacity() * properties.getSaturationPercent());
+    }
+
+    @Override
+    public void start() {
+        parseStage.start();
+        enrichStage.start();
+        persistStage.start();
+        running = true;
+    }
+
+    /**
+     * Stops the stages one after another, so that every event accepted before shutdown is persisted
+     */
+    @Override
+    public void stop() {
+        parseStage.drain();
+        enrichStage.drain();
+        persistStage.drain();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1024;
+    }
+
+    private void parse(List<String> rawEvents) {
+        rawEvents.stream()
+                .filter(rawEvent -> !deduplicator.isDuplicate(rawEvent))
+                .forEach(this::parse);
+    }
+
+    private void parse(String rawEvent) {
+        List<Event> events;
+        try {
+            events = parser.getParsedEvents(rawEvent);
+        } catch (RuntimeException ex) {
+            deduplicator.forget(rawEvent);
+            logger.error("Failed to parse event", ex);
+            return;
+        }
+        enrichStage.put(events);
+    }
+
+    private void enrich(List<List<Event>> parsedEvents) {
+        parsedEvents.forEach(events -> {
+            try {
+                saveUesOfVes(events);
+                events.forEach(MeasurementColumns::fill);
+            } catch (RuntimeException ex) {
+                forget(events);
+                logger.error("Failed to enrich {} event(s)", events.size(), ex);
+                return;
+            }
+            removeTrafficModelFromEvents(events).forEach(persistStage::put);
+        });
+    }
+
+    /**
+     * Events are added to the hot store once they are persisted, so a redelivered event is not added twice. Events of
+     * batches committed before a failure have an id, they are added to the hot store and stay in the deduplicator,
+     * only the others are forgotten, so their redelivery is stored.
+     */
+    private void persist(List<Event> events) {
+        try {
+            persister.persistAll(events);
+        } catch (RuntimeException ex) {
+            Map<Boolean, List<Event>> committed = events.stream()
+                    .collect(Collectors.partitioningBy(event -> event.getId() != null));
+            committed.get(true).forEach(hotStore::add);
+            forget(committed.get(false));
+            throw ex;
+        }
+        events.forEach(hotStore::add);
+    }
+
+    private void forget(List<Event> events) {
+        events.forEach(event -> deduplicator.forget(event.getCommonEventHeader()));
+    }
+
+    private void saveUesOfVes(List<Event> events) {
+        Set<String> uesOfVes = Optional.ofNullable(events).orElse(Collections.emptyList()).stream().flatMap(event -> getUserEquipmentData(event).stream())
+                .collect(Collectors.toSet());
+        uesOfVes.forEach(ueHolder::addUE);
+    }
+
+    private Set<String> getUserEquipmentData(Event event) {
+        Optional<AdditionalMeasurements> ues = event.getMeasurementFields().getAdditionalMeasurements()
+                .stream().filter(am -> am.getName().equals(UE_FIELD_NAME)).findAny();
+        return ues.map(additionalMeasurements -> additionalMeasurements.getValues().stream()
+                .map(AdditionalMeasurementValues::getParameterName)
+                .collect(Collectors.toSet())).orElse(Collections.emptySet());
+    }
+
+    private List<Event> removeTrafficModelFromEvents(List<Event> events) {
+        return events.stream().map(event -> {
+            event.getMeasurementFields().getAdditionalMeasurements()
+                    .removeIf(additionalMeasurements -> UE_FIELD_NAME.equalsIgnoreCase(additionalMeasurements.getName()));
+            return event;
+        }).collect(Collectors.toList());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StageStatus {
+
+        private final String name;
+        private final int size;
+        private final int capacity;
+    }
+
+    /**
+     * Bounded queue with its own pool of workers, every worker takes up to batch size items at once
+     */
+    private final class Stage<T> {
+
+        private final String name;
+        private final IngestProperties.Stage config;
+        private final BlockingQueue<T> queue;
+        private final ExecutorService workers;
+        private final Consumer<List<T>> handler;
+        private volatile boolean open = true;
+
+        private Stage(String name, IngestProperties.Stage config, Consumer<List<T>> handler) {
+            this.name = name;
+            this.config = config;
+            this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            this.workers = Executors.newFixedThreadPool(config.getWorkers(), new CustomizableThreadFactory("ingest-" + name + "-"));
+            this.handler = handler;
+        }
+
+        private void start() {
+            for (int i = 0; i < config.getWorkers(); i++) {
+                workers.execute(this::work);
+            }
+        }
+
+        private void put(T item) {
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + name + " queue", e);
+            }
+        }
+
+        private void work() {
+            while (open || !queue.isEmpty()) {
+                try {
+                    T first = queue.poll(QUEUE_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        List<T> batch = new ArrayList<>();
+                        batch.add(first);
+                        queue.drainTo(batch, Math.max(0, config.getBatchSize() - 1));
+                        handle(batch);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void handle(List<T> batch) {
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException ex) {
+                logger.error("Failed to {} {} item(s)", name, batch.size(), ex);
+            }
+        }
+
+        private void drain() {
+            open = false;
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(properties.getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                    logger.warn("Stage {} did not drain in time, {} item(s) dropped", name, queue.size());
+                    workers.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workers.shutdownNow();
+            }
+        }
+
+        private StageStatus status() {
+            return new StageStatus(name, queue.size(), config.getQueueCapacity());
+        }
+    }
+}
@@ -14,31 +14,16 @@
 
 package org.onap.rapp.datacollector.service;
 
-import static java.util.Objects.nonNull;
-
-import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 
-import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
-import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
 import org.onap.rapp.datacollector.entity.ves.Event;
-import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
 
 @Service
 public class VesParserImpl extends ParserAbstractClass implements VesParser {
@@ -60,58 +45,6 @@ public class VesParserImpl extends ParserAbstractClass implements VesParser {
         return Collections.singletonList(event);
     }
 
-    /**
-     * Class which deserialize json event into Event object
-     */
-    private static class VesEventDeserializer implements JsonDeserializer<Event> {
-
-        private static class AdditionalMeasurementsRawValue {
-
-            String name;
-            Map<String, String> hashMap;
-        }
-
-        @Override
-        public Event deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-            Optional<JsonObject> eventJsonObject = getEventJsonObject(jsonElement);
-            CommonEventHeader header = getHeaderJsonObject(eventJsonObject.orElse(null), jsonDeserializationContext);
-
-            Optional<MeasurementFields> measurementFields;
-            List<AdditionalMeasurements> additionalMeasurements = new ArrayList<>();
-
-            Optional<JsonObject> vesEventJson = getVesEventJson(eventJsonObject.orElse(null));
-            if (vesEventJson.isPresent()) {
-                measurementFields = Optional.ofNullable(jsonDeserializationContext.deserialize(vesEventJson.get(), MeasurementFields.class));
-                if (vesEventJson.get().has("additionalMeasurements")) {
-                    JsonArray additionalMeasurementsArray = vesEventJson.get().getAsJsonArray("additionalMeasurements");
-                    additionalMeasurements = new ArrayList<>();
-                    for (int i = 0; i < additionalMeasurementsArray.size(); i++) {
-                        AdditionalMeasurementsRawValue tmp = jsonDeserializationContext
-                                .deserialize(additionalMeasurementsArray.get(i).getAsJsonObject(), AdditionalMeasurementsRawValue.class);
-                        additionalMeasurements.add(AdditionalMeasurements.builder()
-                                .withName(tmp.name)
-                                .withHashMap(tmp.hashMap)
-                                .build());
-                    }
-                }
-                logger.trace("measurement fields {}", measurementFields);
-                logger.trace("additional measurements {}", additionalMeasurements);
-                measurementFields = Optional.of(MeasurementFields.builder()
-                        .measurementInterval(measurementFields.orElse(MeasurementFields.EMPTY).measurementInterval)
-                        .additionalMeasurements(additionalMeasurements)
-                        .build());
-                return Event.of(header, measurementFields.get());
-            } else {
-                logger.error("MeasurementFields was not found {}", eventJsonObject);
-                throw new JsonParseException("MeasurementFields was not found");
-            }
-        }
-
-        private Optional<JsonObject> getVesEventJson(JsonObject obj) {
-            return Optional.ofNullable(nonNull(obj) ? obj.getAsJsonObject(VES_EVENT_UNIQUE_ELEMENT) : null);
-        }
-    }
-
     private final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(Event.class, new VesEventDeserializer()).create();
+            .registerTypeAdapter(Event.class, new VesEventTypeAdapter().nullSafe()).create();
 }
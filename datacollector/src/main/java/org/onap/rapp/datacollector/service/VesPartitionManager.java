@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains the time partitions of ves_measurement and of its child tables, which are all partitioned by range of
+ * last_epoch_microsec of their event. Partitions are created ahead of time by splitting them off the catch-all
+ * p_future partition, and partitions older than the retention are dropped as a whole instead of deleting their rows
+ * one by one. Metric rollups are deleted up to the same time.
+ */
+@Component
+@ConditionalOnProperty(prefix = "database.partitioning", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class VesPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(VesPartitionManager.class);
+
+    static final String FUTURE_PARTITION = "p_future";
+    static final String EVENT_TABLE = "ves_measurement";
+    static final List<String> TABLES = List.of(EVENT_TABLE, "ves_measurement_fields", "additional_measurement",
+            "additional_measurement_value", "payload");
+    static final String SELECT_PARTITIONS = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY PARTITION_ORDINAL_POSITION";
+    static final String CREATE_PARTITIONS = "ALTER TABLE %s REORGANIZE PARTITION " + FUTURE_PARTITION
+            + " INTO (%s, PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)";
+    static final String DROP_PARTITIONS = "ALTER TABLE %s DROP PARTITION %s";
+    private static final String MAXVALUE = "MAXVALUE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProperties.Partitioning config;
+    private final LongSupplier clock;
+
+    @Autowired
+    public VesPartitionManager(JdbcTemplate jdbcTemplate, DatabaseProperties databaseProperties) {
+        this(jdbcTemplate, databaseProperties, System::currentTimeMillis);
+    }
+
+    VesPartitionManager(JdbcTemplate jdbcTemplate, DatabaseProperties databaseProperties, LongSupplier clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = databaseProperties.getPartitioning();
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${database.partitioning.maintenance-interval:3600000}")
+    public void maintainPartitions() {
+        Instant current = config.getInterval().floor(Instant.ofEpochMilli(clock.getAsLong()));
+        TABLES.forEach(table -> maintainPartitions(table, current));
+    }
+
+    private void maintainPartitions(String table, Instant current) {
+        try {
+            List<Partition> partitions = jdbcTemplate.query(SELECT_PARTITIONS,
+                    (rs, rowNum) -> new Partition(rs.getString(1), rs.getString(2)), table);
+            if (partitions.stream().noneMatch(Partition::isFuture)) {
+                logger.warn("{} has no {} partition, partitions are not maintained. "
+                        + "Please check the schema migrations of the data collector", table, FUTURE_PARTITION);
+                return;
+            }
+            createPartitions(table, partitions, current);
+            dropPartitions(table, partitions, current);
+        } catch (DataAccessException ex) {
+            logger.error("Failed to maintain partitions of {}", table, ex);
+        }
+    }
+
+    private void createPartitions(String table, List<Partition> partitions, Instant current) {
+        long highestBound = partitions.stream().filter(partition -> !partition.isFuture())
+                .mapToLong(Partition::getUpperBound).max().orElse(Long.MIN_VALUE);
+        DatabaseProperties.Interval interval = config.getInterval();
+        List<String> definitions = new ArrayList<>();
+        Instant start = current;
+        for (int i = 0; i <= config.getPrecreate(); i++) {
+            Instant end = interval.next(start);
+            long bound = toMicros(end);
+            if (bound > highestBound) {
+                definitions.add(String.format("PARTITION %s VALUES LESS THAN (%d)", interval.partitionName(start), bound));
+            }
+            start = end;
+        }
+        if (!definitions.isEmpty()) {
+            logger.info("Creating {} partitions of {}", definitions.size(), table);
+            jdbcTemplate.execute(String.format(CREATE_PARTITIONS, table, String.join(", ", definitions)));
+        }
+    }
+
+    private void dropPartitions(String table, List<Partition> partitions, Instant current) {
+        long cutoff = toMicros(config.getInterval().previous(current, config.getRetention()));
+        List<Partition> expired = partitions.stream()
+                .filter(partition -> !partition.isFuture() && partition.getUpperBound() <= cutoff)
+                .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            return;
+        }
+        String names = expired.stream().map(Partition::getName).collect(Collectors.joining(", "));
+        logger.info("Dropping partitions {} of {}", names, table);
+        if (EVENT_TABLE.equals(table)) {
+            long retainedFrom = expired.stream().mapToLong(Partition::getUpperBound).max().getAsLong();
+            jdbcTemplate.update(MetricRollupRepository.DELETE_ROLLUPS, retainedFrom);
+        }
+        jdbcTemplate.execute(String.format(DROP_PARTITIONS, table, names));
+    }
+
+    private static long toMicros(Instant instant) {
+        return TimeUnit.MILLISECONDS.toMicros(instant.toEpochMilli());
+    }
+
+    static class Partition {
+
+        private final String name;
+        private final long upperBound;
+
+        Partition(String name, String description) {
+            this.name = name;
+            this.upperBound = description == null || MAXVALUE.equals(description)
+                    ? Long.MAX_VALUE : Long.parseLong(description);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        long getUpperBound() {
+            return upperBound;
+        }
+
+        boolean isFuture() {
+            return FUTURE_PARTITION.equals(name);
+        }
+    }
+}
@@ -13,10 +13,14 @@
 
 package org.onap.rapp.datacollector.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
 import org.onap.rapp.datacollector.entity.ves.Event;
 import org.onap.rapp.datacollector.entity.ves.EventAPI;
+import org.onap.rapp.datacollector.entity.ves.RawPayload;
 
 public interface VesPersister {
 
@@ -35,4 +39,10 @@ public interface VesPersister {
     void update(Event event, Long id);
 
     List<EventAPI> findEventsByTimeWindow(long startTime, long endTime);
+
+    void forEachMeasurementInTimeWindow(long startTime, long endTime, MeasurementFilter filter, MeasurementVisitor visitor);
+
+    void forEachUntypedEventInTimeWindow(long startTime, long endTime, Consumer<EventAPI> consumer);
+
+    List<RawPayload> findPayloadsByIds(Collection<Long> ids);
 }
@@ -14,15 +14,26 @@
 
 package org.onap.rapp.datacollector.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
 import org.onap.rapp.datacollector.entity.ves.Event;
 import org.onap.rapp.datacollector.entity.ves.EventAPI;
+import org.onap.rapp.datacollector.entity.ves.RawPayload;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service("vesPersisterSqlImpl")
 @Transactional
@@ -31,23 +42,91 @@ public class VesPersisterSqlImpl implements VesPersister {
 
     private final SqlRepository repository;
     private final SqlRepositoryAPI repositoryAPI;
+    private final RawPayloadRepository payloadRepository;
+    private final VesBatchWriter batchWriter;
+    private final VesWindowReader windowReader;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseProperties databaseProperties;
 
     @Autowired
-    public VesPersisterSqlImpl(SqlRepository repository, SqlRepositoryAPI repositoryAPI) {
+    public VesPersisterSqlImpl(SqlRepository repository, SqlRepositoryAPI repositoryAPI, RawPayloadRepository payloadRepository,
+            VesBatchWriter batchWriter, VesWindowReader windowReader, PlatformTransactionManager transactionManager,
+            DatabaseProperties databaseProperties) {
         this.repository = repository;
         this.repositoryAPI = repositoryAPI;
+        this.payloadRepository = payloadRepository;
+        this.batchWriter = batchWriter;
+        this.windowReader = windowReader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseProperties = databaseProperties;
     }
 
     @Override
     public void persists(Event event) {
         logger.debug("persisting event {}", event);
-        repository.save(event);
+        persistAll(List.of(event));
     }
 
+    /**
+     * Stores events with JDBC batch inserts, every database.batch-size events are committed in their own transaction.
+     * The ids of the events of a rolled back transaction are cleared, so after a failure the events which were
+     * committed are the ones with an id.
+     *
+     * @param events events to be stored
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void persistAll(List<Event> events) {
         logger.debug("persisting all events {}", events);
-        repository.saveAll(events);
+        int batchSize = Math.max(1, databaseProperties.getBatchSize());
+        for (int from = 0; from < events.size(); from += batchSize) {
+            List<Event> batch = events.subList(from, Math.min(events.size(), from + batchSize));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    batch.forEach(this::savePayload);
+                    batchWriter.insert(batch);
+                });
+            } catch (RuntimeException ex) {
+                batch.forEach(event -> event.setId(null));
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Stores the raw payload shared by events derived from one FileReady event, the payload is stored only
+     * by the first of its events, the others just refer to it. If the transaction storing the payload is rolled back
+     * its id is cleared again, so the next event referring to it stores it again instead of a dangling id.
+     *
+     * @param event event to be stored
+     */
+    private void savePayload(Event event) {
+        RawPayload payload = event.payload;
+        if (payload != null) {
+            synchronized (payload) {
+                if (payload.eventId == null) {
+                    payloadRepository.save(payload);
+                    forgetIdOnRollback(payload);
+                }
+                event.payloadId = payload.eventId;
+            }
+        }
+    }
+
+    private static void forgetIdOnRollback(RawPayload payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                    synchronized (payload) {
+                        payload.eventId = null;
+                    }
+                }
+            }
+        });
     }
 
     @Override
@@ -71,7 +150,7 @@ public class VesPersisterSqlImpl implements VesPersister {
     @Override
     public void create(Event event) {
         logger.debug("creating event {}", event);
-        repository.save(event);
+        persistAll(List.of(event));
     }
 
     @Override
@@ -88,4 +167,29 @@ public class VesPersisterSqlImpl implements VesPersister {
         logger.debug("finding top {} events", startTime);
         return repositoryAPI.findByLastEpochMicrosecBetweenOrderByLastEpochMicrosecAsc(startTime, endTime);
     }
+
+    /**
+     * Streams the typed columns of the events of the filtered cells in the window, the rows are not collected
+     */
+    @Override
+    public void forEachMeasurementInTimeWindow(long startTime, long endTime, MeasurementFilter filter,
+            MeasurementVisitor visitor) {
+        logger.debug("reading measurements from {} to {}", startTime, endTime);
+        windowReader.readMeasurements(startTime, endTime, filter, visitor);
+    }
+
+    /**
+     * Streams the events stored before cell id and metric values were written to typed columns
+     */
+    @Override
+    public void forEachUntypedEventInTimeWindow(long startTime, long endTime, Consumer<EventAPI> consumer) {
+        logger.debug("reading untyped events from {} to {}", startTime, endTime);
+        windowReader.readUntypedEvents(startTime, endTime, consumer);
+    }
+
+    @Override
+    public List<RawPayload> findPayloadsByIds(Collection<Long> ids) {
+        logger.debug("finding payloads by ids {}", ids);
+        return (List<RawPayload>) payloadRepository.findAllById(ids);
+    }
 }
@@ -13,112 +13,191 @@
 
 package org.onap.rapp.datacollector.service;
 
-import java.util.Arrays;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-
-import java.util.stream.Stream;
-import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurementValues;
-import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
-import org.onap.rapp.datacollector.entity.ves.Event;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.onap.rapp.datacollector.service.configuration.DmaapProperties;
 import org.onap.rapp.datacollector.service.configuration.DmaapRestReaderConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
 public class VesRetrievalService implements DmaapRestReader {
 
     private static final Logger logger = LoggerFactory.getLogger(VesRetrievalService.class);
-    public static final String UE_FIELD_NAME = "trafficModel";
 
     private final RestTemplate restTemplate;
     private final DmaapRestReaderConfiguration config;
-    private final ParserFactory parser;
-    private final VesPersister persister;
-    private final UEHolder ueHolder;
+    private final VesIngestPipeline pipeline;
+    private final Executor pollingExecutor;
+    private final Map<String, Semaphore> topicPermits = new ConcurrentHashMap<>();
 
     @Autowired
-    public VesRetrievalService(RestTemplate restTemplate, ParserFactory parser, VesPersister persister,
-            DmaapRestReaderConfiguration configuration, UEHolder ueHolder) {
+    public VesRetrievalService(RestTemplate restTemplate, VesIngestPipeline pipeline,
+            DmaapRestReaderConfiguration configuration, @Qualifier("dmaapPollingExecutor") Executor pollingExecutor) {
         this.restTemplate = restTemplate;
-        this.parser = parser;
-        this.persister = persister;
+        this.pipeline = pipeline;
         this.config = configuration;
-        this.ueHolder = ueHolder;
+        this.pollingExecutor = pollingExecutor;
     }
 
     @Override
     public Collection<String> retrieveEvents() {
         logger.info("Reaching from dmaap: {}", config.getMeasurementsTopicUrls());
-        return config.getMeasurementsTopicUrls().stream().flatMap(this::retrieveEventsFromTopic)
-                .collect(Collectors.toList());
+        Collection<String> events = new ConcurrentLinkedQueue<>();
+        CompletableFuture.allOf(config.getMeasurementsTopicUrls().stream()
+                .map(topic -> pollTopic(topic, events::add))
+                .toArray(CompletableFuture[]::new)).join();
+        return new ArrayList<>(events);
     }
 
-    private Stream<String> retrieveEventsFromTopic(String topic) {
+    /**
+     * Polls a topic on the polling executor and hands each of its events to the handler on the same worker,
+     * so a slow or failing topic never holds back the others. A topic which already has
+     * its maximum number of polls in flight is skipped.
+     *
+     * @param topic topic url
+     * @param handler consumer of every event read from the topic
+     * @return future completed when the events of the topic have been handled
+     */
+    private CompletableFuture<Void> pollTopic(String topic, Consumer<String> handler) {
+        Semaphore permits = topicPermits.computeIfAbsent(topic,
+                t -> new Semaphore(config.getDmaapProperties().getMaxInFlightPerTopic()));
+        if (!permits.tryAcquire()) {
+            logger.debug("Topic {} has reached its limit of polls in flight, skipping", topic);
+            return CompletableFuture.completedFuture(null);
+        }
         try {
-            ResponseEntity<String[]> responseEntity = restTemplate.exchange(topic, HttpMethod.GET,
-                    new HttpEntity<String>(createHeaders(config.getDmaapProperties().getUsername(),
-                            config.getDmaapProperties().getPassword())), String[].class);
-            if (responseEntity.hasBody()) {
-                String[] events = responseEntity.getBody();
-                return Arrays.stream(events);
-            }
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    retrieveEventsFromTopic(topic, handler);
+                } finally {
+                    permits.release();
+                }
+            }, pollingExecutor).exceptionally(ex -> {
+                logger.error("Failed to handle events from topic {}", topic, ex);
+                return null;
+            });
+        } catch (RejectedExecutionException ex) {
+            permits.release();
+            logger.error("Failed to schedule poll of topic {}", topic, ex);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Reads the DMaaP response array element by element straight from the response body,
+     * so only one event of the batch is held in memory at a time
+     *
+     * @param topic topic url
+     * @param handler consumer of every event read from the topic
+     * @return number of events read from the topic
+     */
+    private int retrieveEventsFromTopic(String topic, Consumer<String> handler) {
+        try {
+            Integer received = restTemplate.execute(getTopicRequestUrl(topic), HttpMethod.GET,
+                    request -> request.getHeaders().addAll(createHeaders(config.getDmaapProperties().getUsername(),
+                            config.getDmaapProperties().getPassword())),
+                    response -> readEvents(response.getBody(), handler));
+            return received == null ? 0 : received;
         } catch (RestClientException ex) {
             logger.error("Failed to reach to dmaap", ex);
         }
 
-        return Arrays.stream(new String[0]);
+        return 0;
+    }
+
+    private int readEvents(InputStream body, Consumer<String> handler) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                logger.warn("Unexpected dmaap response, array of events expected but got {}", reader.peek());
+                return 0;
+            }
+        } catch (EOFException ex) {
+            return 0;
+        }
+        int received = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            handler.accept(reader.peek() == JsonToken.STRING ? reader.nextString()
+                    : JsonParser.parseReader(reader).toString());
+            received++;
+        }
+        reader.endArray();
+        return received;
+    }
+
+    /**
+     * Adds the DMaaP long-poll timeout and batch limit query parameters to the topic url, when configured
+     *
+     * @param topic topic url
+     * @return url used to read from the topic
+     */
+    private String getTopicRequestUrl(String topic) {
+        DmaapProperties properties = config.getDmaapProperties();
+        if (properties.getTimeout() <= 0 && properties.getLimit() <= 0) {
+            return topic;
+        }
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(topic);
+        if (properties.getTimeout() > 0) {
+            builder.queryParam("timeout", properties.getTimeout());
+        }
+        if (properties.getLimit() > 0) {
+            builder.queryParam("limit", properties.getLimit());
+        }
+        return builder.build().toUriString();
     }
 
     private HttpHeaders createHeaders(String username, String password) {
         HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(username, password);
         return headers;
     }
 
-    @Scheduled(fixedRate = 5000)
+    /**
+     * Starts a poll of every topic, events of each topic are stored as soon as that topic answers
+     */
     public void retrieveAndStoreVesEvents() {
-        retrieveEvents().stream().map(parser::getParsedEvents).forEach(this::saveAllEvents);
-    }
-
-    private void saveAllEvents(List<Event> events) {
-        saveUesOfVes(events);
-        persister.persistAll(removeTrafficModelFromEvents(events));
-    }
-
-    private void saveUesOfVes(List<Event> events) {
-        Set<String> uesOfVes = Optional.ofNullable(events).orElse(Collections.emptyList()).stream().flatMap(event -> getUserEquipmentData(event).stream())
-                .collect(Collectors.toSet());
-        uesOfVes.forEach(ueHolder::addUE);
-    }
-
-    private Set<String> getUserEquipmentData(Event event) {
-        Optional<AdditionalMeasurements> ues = event.getMeasurementFields().getAdditionalMeasurements()
-                .stream().filter(am -> am.getName().equals(UE_FIELD_NAME)).findAny();
-        return ues.map(additionalMeasurements -> additionalMeasurements.getValues().stream()
-                .map(AdditionalMeasurementValues::getParameterName)
-                .collect(Collectors.toSet())).orElse(Collections.emptySet());
+        config.getMeasurementsTopicUrls().forEach(topic -> pollTopic(topic, pipeline::submit));
     }
 
-    private List<Event> removeTrafficModelFromEvents(List<Event> events) {
-        return events.stream().map(event -> {
-            event.getMeasurementFields().getAdditionalMeasurements()
-                    .removeIf(additionalMeasurements -> UE_FIELD_NAME.equalsIgnoreCase(additionalMeasurements.getName()));
-            return event;
-        }).collect(Collectors.toList());
+    /**
+     * Reads one batch of events from the topic and hands it event by event to the ingest pipeline
+     * on the calling thread, the call blocks while the pipeline is full
+     *
+     * @param topic topic url
+     * @return number of events read from the topic
+     */
+    public int retrieveAndStoreVesEvents(String topic) {
+        return retrieveEventsFromTopic(topic, pipeline::submit);
     }
 }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.onap.rapp.datacollector.service.MeasurementColumns.LATENCY_FIELD_NAME;
+import static org.onap.rapp.datacollector.service.MeasurementColumns.THROUGHPUT_FIELD_NAME;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.ves.EventAPI;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the rows of a time window with a forward-only cursor, database.fetch-size rows at a time, and hands every row
+ * to a callback. No list of the window is built, so heap use does not depend on the width of the window.
+ */
+@Component
+public class VesWindowReader {
+
+    static final String SELECT_MEASUREMENTS = "SELECT cell_id, last_epoch_microsec, latency, throughput FROM ves_measurement "
+            + "WHERE last_epoch_microsec BETWEEN ? AND ? AND typed AND cell_id IS NOT NULL";
+    static final String SELECT_UNTYPED_EVENTS = "SELECT id, rawdata, payload_id FROM ves_measurement "
+            + "WHERE last_epoch_microsec BETWEEN ? AND ? AND NOT typed";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProperties databaseProperties;
+
+    public VesWindowReader(JdbcTemplate jdbcTemplate, DatabaseProperties databaseProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProperties = databaseProperties;
+    }
+
+    /**
+     * Passes the typed columns of the events in the window to the visitor, rawdata is not read. Rows of other cells
+     * than the filtered ones are not read and columns of metrics which are not filtered are not selected.
+     *
+     * @param startTime window start in microseconds
+     * @param endTime window end in microseconds
+     * @param filter cells and metrics to read
+     * @param visitor measurement visitor
+     */
+    public void readMeasurements(long startTime, long endTime, MeasurementFilter filter, MeasurementVisitor visitor) {
+        List<String> cellIds = filter.getCellIds() == null ? Collections.emptyList() : new ArrayList<>(filter.getCellIds());
+        query(selectMeasurements(filter), startTime, endTime, cellIds, resultSet -> visitor.visit(resultSet.getString(1),
+                resultSet.getLong(2), intOrMissing(resultSet, 3), intOrMissing(resultSet, 4)));
+    }
+
+    static String selectMeasurements(MeasurementFilter filter) {
+        if (filter.isAll()) {
+            return SELECT_MEASUREMENTS;
+        }
+        StringBuilder sql = new StringBuilder("SELECT cell_id, last_epoch_microsec, ")
+                .append(filter.acceptsMetric(LATENCY_FIELD_NAME) ? "latency" : "NULL")
+                .append(", ")
+                .append(filter.acceptsMetric(THROUGHPUT_FIELD_NAME) ? "throughput" : "NULL")
+                .append(" FROM ves_measurement WHERE last_epoch_microsec BETWEEN ? AND ? AND typed AND cell_id IS NOT NULL");
+        if (filter.getCellIds() != null) {
+            sql.append(" AND cell_id IN (").append(String.join(", ", Collections.nCopies(filter.getCellIds().size(), "?")))
+                    .append(')');
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Passes the events in the window which were stored without typed columns to the consumer
+     *
+     * @param startTime window start in microseconds
+     * @param endTime window end in microseconds
+     * @param consumer consumer of the events, only id, rawdata and payload id are read
+     */
+    public void readUntypedEvents(long startTime, long endTime, Consumer<EventAPI> consumer) {
+        query(SELECT_UNTYPED_EVENTS, startTime, endTime, Collections.emptyList(), resultSet -> {
+            long payloadId = resultSet.getLong(3);
+            boolean sharedPayload = !resultSet.wasNull();
+            consumer.accept(EventAPI.builder()
+                    .id(resultSet.getLong(1))
+                    .rawdata(resultSet.getString(2))
+                    .payloadId(sharedPayload ? payloadId : null)
+                    .build());
+        });
+    }
+
+    private void query(String sql, long startTime, long endTime, List<String> cellIds, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(databaseProperties.getFetchSize());
+            statement.setLong(1, startTime);
+            statement.setLong(2, endTime);
+            for (int i = 0; i < cellIds.size(); i++) {
+                statement.setString(3 + i, cellIds.get(i));
+            }
+            return statement;
+        }, handler);
+    }
+
+    private static int intOrMissing(ResultSet resultSet, int column) throws SQLException {
+        int value = resultSet.getInt(column);
+        return resultSet.wasNull() ? MeasurementVisitor.MISSING : value;
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.EventAPI;
+import org.onap.rapp.datacollector.entity.ves.RawPayload;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Write-behind persister: stored events are buffered and written by a background flusher in group commits,
+ * as soon as flush-size events are pending or flush-interval has passed since the first of them.
+ * A group which fails with a transient error, such as a lost connection, is retried with a growing backoff and is not
+ * dropped, meanwhile the bounded buffer fills up and blocks the ingest pipeline. A group which fails with any other
+ * error is split in halves until the events which cannot be written are found, those are dropped and the others are
+ * written. Events are dropped otherwise only if they are still not written when the shutdown timeout passes.
+ * Reads and single event updates go straight to the database.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(prefix = "ingest.write-behind", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WriteBehindVesPersister implements VesPersister, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindVesPersister.class);
+    private static final long MAX_WAIT_MS = 100;
+
+    private final VesPersister delegate;
+    private final IngestProperties properties;
+    private final BlockingQueue<Event> pending;
+    private final ExecutorService flusher;
+    private final Timer flushTimer;
+    private final Counter failedEvents;
+
+    private volatile boolean running;
+    private volatile boolean writeFailing;
+
+    public WriteBehindVesPersister(@Qualifier("vesPersisterSqlImpl") VesPersister delegate, IngestProperties properties,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.pending = new LinkedBlockingQueue<>(properties.getWriteBehind().getCapacity());
+        this.flusher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("ves-write-behind-"));
+        this.flushTimer = Timer.builder("ves.persist.flush")
+                .description("Time spent writing one group of buffered events")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("ves.persist.failed")
+                .description("Buffered events which could not be written")
+                .register(meterRegistry);
+        Gauge.builder("ves.persist.pending", pending, Collection::size)
+                .description("Events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void persists(Event event) {
+        enqueue(event);
+    }
+
+    /**
+     * Buffers the events, blocks while the buffer is full
+     *
+     * @param events events to be stored
+     */
+    @Override
+    public void persistAll(List<Event> events) {
+        events.forEach(this::enqueue);
+    }
+
+    @Override
+    public List<EventAPI> findTopNVesEvent(int n) {
+        return delegate.findTopNVesEvent(n);
+    }
+
+    @Override
+    public List<EventAPI> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<EventAPI> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public void create(Event event) {
+        delegate.create(event);
+    }
+
+    @Override
+    public void update(Event event, Long id) {
+        delegate.update(event, id);
+    }
+
+    @Override
+    public List<EventAPI> findEventsByTimeWindow(long startTime, long endTime) {
+        return delegate.findEventsByTimeWindow(startTime, endTime);
+    }
+
+    @Override
+    public void forEachMeasurementInTimeWindow(long startTime, long endTime, MeasurementFilter filter,
+            MeasurementVisitor visitor) {
+        delegate.forEachMeasurementInTimeWindow(startTime, endTime, filter, visitor);
+    }
+
+    @Override
+    public void forEachUntypedEventInTimeWindow(long startTime, long endTime, Consumer<EventAPI> consumer) {
+        delegate.forEachUntypedEventInTimeWindow(startTime, endTime, consumer);
+    }
+
+    @Override
+    public List<RawPayload> findPayloadsByIds(Collection<Long> ids) {
+        return delegate.findPayloadsByIds(ids);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getCapacity() {
+        return properties.getWriteBehind().getCapacity();
+    }
+
+    /**
+     * @return true=the last write failed and is being retried
+     */
+    public boolean isWriteFailing() {
+        return writeFailing;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher.execute(this::flushLoop);
+    }
+
+    /**
+     * Stops accepting events and waits until all buffered events are written
+     */
+    @Override
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(properties.getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Write-behind buffer did not drain in time");
+                flusher.shutdownNow();
+                flusher.awaitTermination(MAX_WAIT_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flusher.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    private void enqueue(Event event) {
+        if (!running) {
+            throw new IllegalStateException("Write-behind persister is stopped");
+        }
+        try {
+            pending.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for write-behind buffer", e);
+        }
+    }
+
+    private void flushLoop() {
+        IngestProperties.WriteBehind config = properties.getWriteBehind();
+        List<Event> batch = new ArrayList<>();
+        try {
+            while (running || !pending.isEmpty()) {
+                collect(batch, config);
+                flush(batch);
+                batch = new ArrayList<>();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(batch);
+        }
+    }
+
+    /**
+     * Waits for the first event, then collects events until flush-size is reached or flush-interval has passed.
+     * Waiting is done in short slices, so that a stop is noticed right away.
+     */
+    private void collect(List<Event> batch, IngestProperties.WriteBehind config) throws InterruptedException {
+        Event first = pending.poll(MAX_WAIT_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getFlushInterval());
+        while (batch.size() < config.getFlushSize()) {
+            pending.drainTo(batch, config.getFlushSize() - batch.size());
+            long remaining = running ? deadline - System.nanoTime() : 0;
+            if (batch.size() >= config.getFlushSize() || remaining <= 0) {
+                return;
+            }
+            Event next = pending.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MS)), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * Writes the events, events which were committed before a failure have an id and are not written again.
+     * Transient failures are retried until the write succeeds, on other failures the group is split in halves and
+     * an event which fails on its own is dropped. If the flusher is interrupted, the events which are not written are
+     * left in the batch.
+     */
+    private void flush(List<Event> batch) throws InterruptedException {
+        long backoff = properties.getWriteBehind().getRetryBackoff();
+        Deque<List<Event>> groups = new ArrayDeque<>();
+        groups.push(new ArrayList<>(batch));
+        while (!groups.isEmpty()) {
+            List<Event> group = groups.peek();
+            try {
+                flushTimer.record(() -> delegate.persistAll(group));
+                logger.debug("{} buffered events written", group.size());
+                groups.pop();
+                writeFailing = false;
+                backoff = properties.getWriteBehind().getRetryBackoff();
+            } catch (RuntimeException ex) {
+                group.removeIf(event -> event.getId() != null);
+                if (isTransient(ex)) {
+                    writeFailing = true;
+                    logger.error("Failed to write {} buffered events, retrying in {} ms", group.size(), backoff, ex);
+                    backOff(backoff, groups, batch);
+                    backoff = Math.min(backoff * 2, properties.getWriteBehind().getMaxRetryBackoff());
+                } else {
+                    groups.pop();
+                    split(group, groups, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Transient failures, lost connections included, may succeed when retried, any other failure is caused by the
+     * written events
+     */
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Splits the failed group in halves which are written first, an event which fails on its own is dropped
+     */
+    private void split(List<Event> group, Deque<List<Event>> groups, RuntimeException ex) {
+        if (group.size() > 1) {
+            int half = group.size() / 2;
+            groups.push(new ArrayList<>(group.subList(half, group.size())));
+            groups.push(new ArrayList<>(group.subList(0, half)));
+            return;
+        }
+        group.forEach(event -> {
+            failedEvents.increment();
+            logger.error("Dropping event {} which cannot be written", event.getCommonEventHeader(), ex);
+        });
+    }
+
+    private static void backOff(long backoff, Deque<List<Event>> groups, List<Event> batch) throws InterruptedException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(backoff);
+        } catch (InterruptedException e) {
+            batch.clear();
+            groups.forEach(batch::addAll);
+            throw e;
+        }
+    }
+
+    private void drop(List<Event> batch) {
+        int dropped = batch.size() + pending.size();
+        pending.clear();
+        if (dropped > 0) {
+            failedEvents.increment(dropped);
+            logger.error("{} buffered events were not written before shutdown and are dropped", dropped);
+        }
+    }
+}
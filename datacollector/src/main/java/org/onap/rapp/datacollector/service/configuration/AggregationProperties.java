@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "aggregation")
+public class AggregationProperties {
+
+    private SlotCache slotCache = new SlotCache();
+    private Streaming streaming = new Streaming();
+
+    @Getter
+    @Setter
+    public static class SlotCache {
+
+        private boolean enabled = true;
+        /** Upper bound of cached per-cell slot aggregates, the least recently used slots are evicted first */
+        private int maxEntries = 200000;
+        /** Time after the end of a slot in which late events are still expected, the slot is not cached before */
+        private long settleTime = 30000;
+    }
+
+    @Getter
+    @Setter
+    public static class Streaming {
+
+        /** Threads which write streamed responses, separate from the request threads */
+        private int threads = 4;
+        /** Responses waiting for a free thread, further responses are rejected with 503 */
+        private int queueCapacity = 100;
+        /** Time in milliseconds a streamed response may take before it is aborted */
+        private long timeout = 120000;
+    }
+}
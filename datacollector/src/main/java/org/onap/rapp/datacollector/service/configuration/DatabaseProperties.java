@@ -13,6 +13,11 @@
 
 package org.onap.rapp.datacollector.service.configuration;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -27,4 +32,78 @@ public class DatabaseProperties {
     private String name;
     private String username;
     private String password;
+    private int batchSize = 500;
+    private boolean rewriteBatchedStatements = true;
+    private boolean bulkLoad = false;
+    /** Rows fetched per round trip when the rows of a time window are read */
+    private int fetchSize = 1000;
+    private Pool pool = new Pool();
+    private Partitioning partitioning = new Partitioning();
+    private Rollup rollup = new Rollup();
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int minimumIdle = 2;
+        private int maximumPoolSize = 10;
+        private long connectionTimeout = 30000;
+        private long idleTimeout = 600000;
+        private long maxLifetime = 1800000;
+        private long leakDetectionThreshold = 60000;
+        private boolean useServerPrepStmts = true;
+        private int prepStmtCacheSize = 250;
+        private int prepStmtCacheSqlLimit = 2048;
+    }
+
+    @Getter
+    @Setter
+    public static class Partitioning {
+
+        private boolean enabled = true;
+        private Interval interval = Interval.DAILY;
+        /** Number of partitions created ahead of the current one */
+        private int precreate = 7;
+        /** Number of partitions kept before the current one, older partitions are dropped */
+        private int retention = 30;
+        private long maintenanceInterval = 3600000;
+    }
+
+    @Getter
+    @Setter
+    public static class Rollup {
+
+        private boolean enabled = true;
+        /** Length of the pre-aggregated slots in seconds, must not be changed once rollups are stored */
+        private int baseSlot = 10;
+    }
+
+    public enum Interval {
+        HOURLY(ChronoUnit.HOURS, "yyyyMMddHH"),
+        DAILY(ChronoUnit.DAYS, "yyyyMMdd");
+
+        private final ChronoUnit unit;
+        private final DateTimeFormatter nameFormat;
+
+        Interval(ChronoUnit unit, String namePattern) {
+            this.unit = unit;
+            this.nameFormat = DateTimeFormatter.ofPattern(namePattern).withZone(ZoneOffset.UTC);
+        }
+
+        public Instant floor(Instant instant) {
+            return instant.truncatedTo(unit);
+        }
+
+        public Instant next(Instant start) {
+            return start.plus(1, unit);
+        }
+
+        public Instant previous(Instant start, int count) {
+            return start.minus(count, unit);
+        }
+
+        public String partitionName(Instant start) {
+            return "p" + nameFormat.format(start);
+        }
+    }
 }
@@ -32,10 +32,43 @@ public class DmaapProperties {
     private String password;
     private int port;
     private List<String> measurementsTopics = new ArrayList<>();
+    private int maxInFlightPerTopic = 1;
+    private ConsumerMode consumerMode = ConsumerMode.LONG_POLL;
+    private int timeout;
+    private int limit;
+    private long emptyPollBackoff = 1000;
+    /**
+     * Time in ms a DMaaP response may take above the long-poll timeout before the connection is taken as hung
+     */
+    private int readTimeoutMargin = 5000;
+    /**
+     * Time in ms to establish a connection to DMaaP, kept short so an unreachable DMaaP does not hold a polling thread
+     * for a whole long-poll
+     */
+    private int connectTimeout = 3000;
+
+    public enum ConsumerMode {
+        /**
+         * Every topic is read once per fixed rate tick
+         */
+        SCHEDULED,
+        /**
+         * Every topic is read in a continuous loop of DMaaP long-polls
+         */
+        LONG_POLL
+    }
 
     public List<String> getMeasurementsTopicUrls() {
         return measurementsTopics.stream().map(topic -> String.format("%s://%s:%d/%s", protocol, host, port, topic))
                 .collect(Collectors.toList());
     }
 
+    public int getPollingThreads() {
+        return Math.max(1, measurementsTopics.size() * maxInFlightPerTopic);
+    }
+
+    public int getReadTimeout() {
+        return timeout + readTimeoutMargin;
+    }
+
 }
@@ -24,6 +24,8 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
@@ -32,17 +34,21 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import javax.sql.DataSource;
 
-import org.apache.commons.dbcp.BasicDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.http.client.HttpClient;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustAllStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.ssl.SSLContextBuilder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.client.RestTemplate;
 
@@ -128,22 +134,56 @@ public class DmaapRestReaderConfiguration {
     }
 
 
-    @Bean
-    public DataSource dataSource() {
-        BasicDataSource dataSource = new BasicDataSource();
+    /**
+     * Connection pool shared by ingest and queries. Its wait time, active connections and timeouts
+     * are exported as hikaricp.* metrics when a meter registry is available.
+     */
+    @Bean(destroyMethod = "close")
+    public DataSource dataSource(ObjectProvider<MeterRegistry> meterRegistry) {
+        DatabaseProperties.Pool pool = databaseProperties.getPool();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("ves-pool");
         dataSource.setDriverClassName(databaseProperties.getDriverClassName());
-        dataSource.setUrl("jdbc:mysql://" + databaseProperties.getHost() + ":" + databaseProperties.getPort() + "/" + databaseProperties.getName());
+        dataSource.setJdbcUrl("jdbc:mysql://" + databaseProperties.getHost() + ":" + databaseProperties.getPort() + "/" + databaseProperties.getName());
         dataSource.setUsername(databaseProperties.getUsername());
         dataSource.setPassword(databaseProperties.getPassword());
+        dataSource.setMinimumIdle(pool.getMinimumIdle());
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout());
+        dataSource.setIdleTimeout(pool.getIdleTimeout());
+        dataSource.setMaxLifetime(pool.getMaxLifetime());
+        dataSource.setLeakDetectionThreshold(pool.getLeakDetectionThreshold());
+        dataSource.addDataSourceProperty("rewriteBatchedStatements", String.valueOf(databaseProperties.isRewriteBatchedStatements()));
+        dataSource.addDataSourceProperty("useServerPrepStmts", String.valueOf(pool.isUseServerPrepStmts()));
+        dataSource.addDataSourceProperty("cachePrepStmts", "true");
+        dataSource.addDataSourceProperty("prepStmtCacheSize", String.valueOf(pool.getPrepStmtCacheSize()));
+        dataSource.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(pool.getPrepStmtCacheSqlLimit()));
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
         return dataSource;
     }
 
     @Bean
     public PlatformTransactionManager transactionManager(DataSource ds) {
-        return new DataSourceTransactionManager(dataSource());
+        return new DataSourceTransactionManager(ds);
     }
 
 
+    /**
+     * Pool on which DMaaP topics are polled, sized so that every topic can have its maximum
+     * number of polls in flight at the same time without waiting for the other topics.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService dmaapPollingExecutor() {
+        return Executors.newFixedThreadPool(dmaapProperties.getPollingThreads(),
+                new CustomizableThreadFactory("dmaap-poller-"));
+    }
+
+    /**
+     * All topics are read from the same DMaaP host, so the connection pool holds a connection for every poll which
+     * can be in flight and a poll never waits for a connection used by another topic. A poll which does not answer
+     * within the long-poll timeout plus a margin is failed instead of holding its topic forever, a connection which
+     * cannot be established within the connect timeout is failed right away.
+     */
     @Bean
     public RestTemplate restTemplate() {
         SSLConnectionSocketFactory socketFactory = null;
@@ -159,8 +199,15 @@ public class DmaapRestReaderConfiguration {
             };
             socketFactory = new SSLConnectionSocketFactory(sslContext, trustAll);
 
-            HttpClient httpClient = HttpClients.custom().setSSLSocketFactory(socketFactory).build();
+            int connections = dmaapProperties.getPollingThreads();
+            HttpClient httpClient = HttpClients.custom()
+                    .setSSLSocketFactory(socketFactory)
+                    .setMaxConnPerRoute(connections)
+                    .setMaxConnTotal(connections)
+                    .build();
             HttpComponentsClientHttpRequestFactory httpClientFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+            httpClientFactory.setConnectTimeout(dmaapProperties.getConnectTimeout());
+            httpClientFactory.setReadTimeout(dmaapProperties.getReadTimeout());
 
             RestTemplate template = new RestTemplate();
             template.setRequestFactory(httpClientFactory);
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "ingest")
+public class IngestProperties {
+
+    private Stage parse = new Stage(1000, 2, 1);
+    private Stage enrich = new Stage(1000, 1, 1);
+    private Stage persist = new Stage(5000, 1, 500);
+    private int saturationPercent = 90;
+    private long shutdownTimeout = 30000;
+    private WriteBehind writeBehind = new WriteBehind();
+    private Deduplication deduplication = new Deduplication();
+    private HotStore hotStore = new HotStore();
+
+    @Getter
+    @Setter
+    public static class Stage {
+
+        private int queueCapacity;
+        private int workers;
+        private int batchSize;
+
+        public Stage() {
+        }
+
+        public Stage(int queueCapacity, int workers, int batchSize) {
+            this.queueCapacity = queueCapacity;
+            this.workers = workers;
+            this.batchSize = batchSize;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class WriteBehind {
+
+        private boolean enabled = true;
+        private int capacity = 20000;
+        private int flushSize = 2000;
+        private long flushInterval = 1000;
+        private long retryBackoff = 500;
+        private long maxRetryBackoff = 30000;
+    }
+
+    @Getter
+    @Setter
+    public static class Deduplication {
+
+        private boolean enabled = true;
+        private long window = 600000;
+        private int expectedEvents = 100000;
+        private double falsePositiveRate = 0.01;
+        private int exactSize = 100000;
+    }
+
+    @Getter
+    @Setter
+    public static class HotStore {
+
+        private boolean enabled = true;
+        private long horizon = 600000;
+        private int cellCapacity = 1024;
+    }
+}
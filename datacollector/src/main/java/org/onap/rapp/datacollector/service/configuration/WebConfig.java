@@ -13,13 +13,42 @@
 
 package org.onap.rapp.datacollector.service.configuration;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final AggregationProperties aggregationProperties;
+
+    public WebConfig(AggregationProperties aggregationProperties) {
+        this.aggregationProperties = aggregationProperties;
+    }
+
+    /**
+     * Streamed responses are written on their own pool, the default executor of Spring MVC creates a thread per
+     * response and has no timeout. Responses which find the queue of the pool full are rejected with 503.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(responseWriterExecutor());
+        configurer.setDefaultTimeout(aggregationProperties.getStreaming().getTimeout());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor responseWriterExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(aggregationProperties.getStreaming().getThreads());
+        executor.setMaxPoolSize(aggregationProperties.getStreaming().getThreads());
+        executor.setQueueCapacity(aggregationProperties.getStreaming().getQueueCapacity());
+        executor.setThreadNamePrefix("response-writer-");
+        return executor;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**");
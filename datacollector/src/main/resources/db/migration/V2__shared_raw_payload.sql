@@ -0,0 +1,7 @@
+-- raw payload shared by all events derived from one FileReady event
+ALTER TABLE ves_measurement ADD COLUMN IF NOT EXISTS payload_id INTEGER;
+
+ALTER TABLE payload
+    MODIFY event_id INTEGER NOT NULL AUTO_INCREMENT,
+    MODIFY payload MEDIUMTEXT NOT NULL,
+    ADD CONSTRAINT payload_pk PRIMARY KEY(event_id);
@@ -0,0 +1,70 @@
+-- partitioned tables can neither reference nor be referenced by foreign keys, every table is partitioned by the time
+-- of its event instead, so the rows of an event are dropped together with the partitions holding them
+ALTER TABLE ves_measurement_fields DROP FOREIGN KEY IF EXISTS ves_measurement_fields_fk1;
+ALTER TABLE additional_measurement DROP FOREIGN KEY IF EXISTS additional_measurement_fk1;
+ALTER TABLE additional_measurement_value DROP FOREIGN KEY IF EXISTS additional_measurement_value_fk1;
+
+UPDATE ves_measurement SET last_epoch_microsec = 0 WHERE last_epoch_microsec IS NULL;
+
+-- the partitioning column has to be part of every unique key
+ALTER TABLE ves_measurement
+    MODIFY last_epoch_microsec BIGINT NOT NULL,
+    DROP PRIMARY KEY,
+    ADD CONSTRAINT ves_measurement_pk PRIMARY KEY(id, last_epoch_microsec);
+
+-- child rows carry the time of their event
+ALTER TABLE ves_measurement_fields ADD COLUMN IF NOT EXISTS last_epoch_microsec BIGINT NOT NULL DEFAULT 0;
+UPDATE ves_measurement_fields f JOIN ves_measurement m ON m.id = f.event_id
+    SET f.last_epoch_microsec = m.last_epoch_microsec;
+ALTER TABLE ves_measurement_fields
+    DROP PRIMARY KEY,
+    ADD CONSTRAINT ves_measurement_fields_pk PRIMARY KEY(event_id, last_epoch_microsec);
+
+ALTER TABLE additional_measurement ADD COLUMN IF NOT EXISTS last_epoch_microsec BIGINT NOT NULL DEFAULT 0;
+UPDATE additional_measurement a JOIN ves_measurement m ON m.id = a.event_id
+    SET a.last_epoch_microsec = m.last_epoch_microsec;
+ALTER TABLE additional_measurement
+    DROP PRIMARY KEY,
+    ADD CONSTRAINT additional_measurement_pk PRIMARY KEY(event_id, am_name, last_epoch_microsec);
+
+ALTER TABLE additional_measurement_value ADD COLUMN IF NOT EXISTS last_epoch_microsec BIGINT NOT NULL DEFAULT 0;
+UPDATE additional_measurement_value v JOIN ves_measurement m ON m.id = v.event
+    SET v.last_epoch_microsec = m.last_epoch_microsec;
+
+-- a shared payload carries the time of the newest event referring to it, so it outlives all of them
+ALTER TABLE payload ADD COLUMN IF NOT EXISTS last_epoch_microsec BIGINT NOT NULL DEFAULT 0;
+UPDATE payload p JOIN (SELECT payload_id, MAX(last_epoch_microsec) AS last_epoch_microsec FROM ves_measurement
+        WHERE payload_id IS NOT NULL GROUP BY payload_id) m ON m.payload_id = p.event_id
+    SET p.last_epoch_microsec = m.last_epoch_microsec;
+ALTER TABLE payload
+    DROP PRIMARY KEY,
+    ADD CONSTRAINT payload_pk PRIMARY KEY(event_id, last_epoch_microsec);
+
+-- existing rows are kept in p_history, which is dropped once all of them are older than the retention. Time partitions
+-- are created ahead and dropped after retention by the data collector, rows newer than the last created partition
+-- land in p_future
+SELECT COALESCE(MAX(last_epoch_microsec), 0) + 1 INTO @history_end FROM ves_measurement;
+SET @partitions = CONCAT(' PARTITION BY RANGE (last_epoch_microsec) (PARTITION p_history VALUES LESS THAN (',
+    @history_end, '), PARTITION p_future VALUES LESS THAN MAXVALUE)');
+
+SET @statement = CONCAT('ALTER TABLE ves_measurement', @partitions);
+PREPARE partition_table FROM @statement;
+EXECUTE partition_table;
+
+SET @statement = CONCAT('ALTER TABLE ves_measurement_fields', @partitions);
+PREPARE partition_table FROM @statement;
+EXECUTE partition_table;
+
+SET @statement = CONCAT('ALTER TABLE additional_measurement', @partitions);
+PREPARE partition_table FROM @statement;
+EXECUTE partition_table;
+
+SET @statement = CONCAT('ALTER TABLE additional_measurement_value', @partitions);
+PREPARE partition_table FROM @statement;
+EXECUTE partition_table;
+
+SET @statement = CONCAT('ALTER TABLE payload', @partitions);
+PREPARE partition_table FROM @statement;
+EXECUTE partition_table;
+
+DEALLOCATE PREPARE partition_table;
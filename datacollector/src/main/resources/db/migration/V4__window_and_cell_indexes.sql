@@ -0,0 +1,5 @@
+-- cell identifier of the event, so per-cell queries do not need to parse rawdata
+ALTER TABLE ves_measurement ADD COLUMN IF NOT EXISTS cell_id VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS ves_measurement_last_epoch ON ves_measurement (last_epoch_microsec);
+CREATE INDEX IF NOT EXISTS ves_measurement_cell ON ves_measurement (cell_id, last_epoch_microsec);
@@ -0,0 +1,10 @@
+-- metric values of the event, written at ingest so the aggregation does not parse rawdata. typed marks the events
+-- stored with these columns, the default backfills the events stored before, which are parsed when aggregated
+ALTER TABLE ves_measurement
+    ADD COLUMN IF NOT EXISTS latency INTEGER,
+    ADD COLUMN IF NOT EXISTS throughput INTEGER,
+    ADD COLUMN IF NOT EXISTS typed BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- covers the window query of the aggregation, which reads only typed columns
+DROP INDEX IF EXISTS ves_measurement_last_epoch ON ves_measurement;
+CREATE INDEX IF NOT EXISTS ves_measurement_window ON ves_measurement (last_epoch_microsec, typed, cell_id, latency, throughput);
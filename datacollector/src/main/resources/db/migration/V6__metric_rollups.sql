@@ -0,0 +1,26 @@
+-- per cell, metric and base slot aggregates of the metric values, updated with every inserted batch of events.
+-- a row holds the values with timestamps in (slot_start, slot_start + base slot]
+CREATE TABLE IF NOT EXISTS measurement_rollup (
+    cell_id VARCHAR(255) NOT NULL,
+    metric VARCHAR(32) NOT NULL,
+    slot_start BIGINT NOT NULL,
+    sum_value BIGINT NOT NULL,
+    value_count BIGINT NOT NULL,
+    min_value INTEGER NOT NULL,
+    max_value INTEGER NOT NULL,
+    CONSTRAINT measurement_rollup_pk PRIMARY KEY(cell_id, metric, slot_start),
+    KEY measurement_rollup_slot (slot_start)
+);
+
+-- rollups of the events already stored with typed columns
+INSERT INTO measurement_rollup (cell_id, metric, slot_start, sum_value, value_count, min_value, max_value)
+SELECT cell_id, 'latency', FLOOR((last_epoch_microsec - 1) / (${rollupBaseSlot} * 1000000)) * (${rollupBaseSlot} * 1000000) AS slot_start,
+    SUM(latency), COUNT(latency), MIN(latency), MAX(latency)
+FROM ves_measurement WHERE cell_id IS NOT NULL AND latency IS NOT NULL
+GROUP BY cell_id, slot_start;
+
+INSERT INTO measurement_rollup (cell_id, metric, slot_start, sum_value, value_count, min_value, max_value)
+SELECT cell_id, 'throughput', FLOOR((last_epoch_microsec - 1) / (${rollupBaseSlot} * 1000000)) * (${rollupBaseSlot} * 1000000) AS slot_start,
+    SUM(throughput), COUNT(throughput), MIN(throughput), MAX(throughput)
+FROM ves_measurement WHERE cell_id IS NOT NULL AND throughput IS NOT NULL
+GROUP BY cell_id, slot_start;
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.controller;
+
+import org.onap.rapp.datacollector.service.PMService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Callable;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Streamed responses are rejected once the queue of the response writers is full
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(PMController.class)
+@ActiveProfiles("test")
+public class PMControllerRejectionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean(name = "pmService")
+    private PMService pmService;
+
+    @MockBean(name = "responseWriterExecutor")
+    private ThreadPoolTaskExecutor responseWriterExecutor;
+
+    @Test
+    public void retrievePMDataWhenResponseWritersAreBusy() throws Exception {
+        BDDMockito.given(pmService.readAggregatedPMDataForTimeInterval(any(Integer.class), any(Integer.class), any(), any()))
+                .willReturn(consumer -> {
+                });
+        BDDMockito.given(responseWriterExecutor.submit(any(Runnable.class)))
+                .willThrow(new TaskRejectedException("queue is full"));
+        BDDMockito.given(responseWriterExecutor.submit(any(Callable.class)))
+                .willThrow(new TaskRejectedException("queue is full"));
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get("/v1/pm/events/aggregatedmetrics")
+                                .param("slot", "10")
+                                .param("count", "12")
+                                .param("startTime", OffsetDateTime.now().minusMinutes(2).toString())
+                )
+                .andExpect(
+                        MockMvcResultMatchers.status().isServiceUnavailable()
+                );
+    }
+}
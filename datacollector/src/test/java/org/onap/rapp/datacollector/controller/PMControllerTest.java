@@ -13,8 +13,13 @@
 
 package org.onap.rapp.datacollector.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.onap.rapp.datacollector.entity.pm.AggregatedPM;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.SlotWindow;
 import org.onap.rapp.datacollector.entity.pm.PMData;
 import org.onap.rapp.datacollector.service.PMService;
 import org.hamcrest.Matchers;
@@ -22,15 +27,18 @@ import org.hamcrest.core.IsNull;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.mockito.internal.verification.VerificationModeFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -41,9 +49,15 @@ import java.io.InputStreamReader;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
-import static org.mockito.Mockito.when;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(PMController.class)
@@ -77,21 +91,12 @@ public class PMControllerTest {
 
     @Test
     public void retrievePMData() throws Exception {
-        when(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime))).thenReturn(new AggregatedPM(pmDataList, pmDataList.size()));
-
-        BDDMockito
-                .given(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime)))
-                .willReturn(new AggregatedPM(pmDataList, pmDataList.size()));
+        givenAggregatedPM();
 
         mockMvc
                 // when
                 .perform(
-                        MockMvcRequestBuilders
-                                .get("/v1/pm/events/aggregatedmetrics")
-                                .param("slot", String.valueOf(SLOT))
-                                .param("count", String.valueOf(COUNT))
-                                .param("startTime", startTime)
-                                .accept(MediaType.APPLICATION_JSON)
+                        MockMvcRequestBuilders.asyncDispatch(startRequest())
                 )
                 // then
                 .andDo(MockMvcResultHandlers.print())
@@ -126,7 +131,7 @@ public class PMControllerTest {
         // verify
         BDDMockito
                 .verify(pmService, VerificationModeFactory.times(1))
-                .getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime));
+                .readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), eq(OffsetDateTime.parse(startTime)), any());
     }
 
     @Test
@@ -134,21 +139,12 @@ public class PMControllerTest {
         pmDataList.get(0).getPerformance().get(0).setLatency(null);
         pmDataList.get(0).getPerformance().get(0).setThroughput(null);
 
-        when(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime))).thenReturn(new AggregatedPM(pmDataList, pmDataList.size()));
-
-        BDDMockito
-                .given(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime)))
-                .willReturn(new AggregatedPM(pmDataList, pmDataList.size()));
+        givenAggregatedPM();
 
         mockMvc
                 // when
                 .perform(
-                        MockMvcRequestBuilders
-                                .get("/v1/pm/events/aggregatedmetrics")
-                                .param("slot", String.valueOf(SLOT))
-                                .param("count", String.valueOf(COUNT))
-                                .param("startTime", startTime)
-                                .accept(MediaType.APPLICATION_JSON)
+                        MockMvcRequestBuilders.asyncDispatch(startRequest())
                 )
                 // then
                 .andDo(MockMvcResultHandlers.print())
@@ -180,7 +176,7 @@ public class PMControllerTest {
         // verify
         BDDMockito
                 .verify(pmService, VerificationModeFactory.times(1))
-                .getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime));
+                .readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), eq(OffsetDateTime.parse(startTime)), any());
     }
 
     @Test
@@ -188,21 +184,12 @@ public class PMControllerTest {
         pmDataList.get(0).getPerformance().get(11).setLatency(null);
         pmDataList.get(0).getPerformance().get(11).setThroughput(null);
 
-        when(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime))).thenReturn(new AggregatedPM(pmDataList, pmDataList.size()));
-
-        BDDMockito
-                .given(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime)))
-                .willReturn(new AggregatedPM(pmDataList, pmDataList.size()));
+        givenAggregatedPM();
 
         mockMvc
                 // when
                 .perform(
-                        MockMvcRequestBuilders
-                                .get("/v1/pm/events/aggregatedmetrics")
-                                .param("slot", String.valueOf(SLOT))
-                                .param("count", String.valueOf(COUNT))
-                                .param("startTime", startTime)
-                                .accept(MediaType.APPLICATION_JSON)
+                        MockMvcRequestBuilders.asyncDispatch(startRequest())
                 )
                 // then
                 .andDo(MockMvcResultHandlers.print())
@@ -234,7 +221,7 @@ public class PMControllerTest {
         // verify
         BDDMockito
                 .verify(pmService, VerificationModeFactory.times(1))
-                .getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime));
+                .readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), eq(OffsetDateTime.parse(startTime)), any());
     }
 
     @Test
@@ -242,21 +229,12 @@ public class PMControllerTest {
         pmDataList.get(0).getPerformance().get(5).setLatency(null);
         pmDataList.get(0).getPerformance().get(5).setThroughput(null);
 
-        when(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime))).thenReturn(new AggregatedPM(pmDataList, pmDataList.size()));
-
-        BDDMockito
-                .given(pmService.getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime)))
-                .willReturn(new AggregatedPM(pmDataList, pmDataList.size()));
+        givenAggregatedPM();
 
         mockMvc
                 // when
                 .perform(
-                        MockMvcRequestBuilders
-                                .get("/v1/pm/events/aggregatedmetrics")
-                                .param("slot", String.valueOf(SLOT))
-                                .param("count", String.valueOf(COUNT))
-                                .param("startTime", startTime)
-                                .accept(MediaType.APPLICATION_JSON)
+                        MockMvcRequestBuilders.asyncDispatch(startRequest())
                 )
                 // then
                 .andDo(MockMvcResultHandlers.print())
@@ -288,7 +266,334 @@ public class PMControllerTest {
         // verify
         BDDMockito
                 .verify(pmService, VerificationModeFactory.times(1))
-                .getAggregatedPMDataForTimeInterval(SLOT, COUNT, OffsetDateTime.parse(startTime));
+                .readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), eq(OffsetDateTime.parse(startTime)), any());
+    }
+
+    @Test
+    public void retrievePMDataAsCbor() throws Exception {
+        givenAggregatedPM();
+
+        MvcResult result = mockMvc
+                .perform(
+                        MockMvcRequestBuilders.asyncDispatch(startRequest(MediaType.APPLICATION_CBOR))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.status().isOk()
+                )
+                .andExpect(
+                        MockMvcResultMatchers
+                                .content()
+                                .contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                )
+                .andReturn();
+
+        assertAggregatedPM(new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void retrievePMDataAsSmile() throws Exception {
+        givenAggregatedPM();
+
+        MvcResult result = mockMvc
+                .perform(
+                        MockMvcRequestBuilders.asyncDispatch(startRequest(PMController.APPLICATION_SMILE))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.status().isOk()
+                )
+                .andExpect(
+                        MockMvcResultMatchers
+                                .content()
+                                .contentTypeCompatibleWith(PMController.APPLICATION_SMILE)
+                )
+                .andReturn();
+
+        assertAggregatedPM(new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void retrievePMDataPrefersJsonForWildcard() throws Exception {
+        givenAggregatedPM();
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.asyncDispatch(startRequest(MediaType.ALL))
+                )
+                .andExpect(
+                        MockMvcResultMatchers
+                                .content()
+                                .contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.itemsLength", Matchers.is(1))
+                );
+    }
+
+    @Test
+    public void retrieveColumnarPMData() throws Exception {
+        pmDataList.get(0).getPerformance().get(5).setLatency(null);
+        OffsetDateTime slotStart = OffsetDateTime.parse("2021-03-31T15:00:00Z");
+        OffsetDateTime cursor = slotStart.plusSeconds(SLOT * (COUNT - 1));
+        givenAggregatedPM(COUNT, slotStart);
+        BDDMockito.given(pmService.getWindow(SLOT, COUNT, OffsetDateTime.parse(startTime)))
+                .willReturn(new SlotWindow(slotStart, COUNT, cursor));
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.asyncDispatch(startRequest("/v2/pm/events/aggregatedmetrics",
+                                MediaType.APPLICATION_JSON))
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(
+                        MockMvcResultMatchers.status().isOk()
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.slotStart", Matchers.is(slotStart.toString()))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.slotWidth", Matchers.is(SLOT))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.slotCount", Matchers.is(COUNT))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.cursor", Matchers.is(cursor.toString()))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.itemsLength", Matchers.is(1))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].cellId", Matchers.is("Cell1"))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].latency", hasSize(COUNT))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].latency[0]", Matchers.is(20))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].latency[5]").value(IsNull.nullValue())
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].throughput", hasSize(COUNT))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].throughput[0]", Matchers.is(80))
+                );
+
+        BDDMockito
+                .verify(pmService, VerificationModeFactory.times(1))
+                .readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), eq(slotStart), any());
+    }
+
+    @Test
+    public void retrieveColumnarPMDataSinceCursor() throws Exception {
+        OffsetDateTime since = OffsetDateTime.parse(startTime).plusSeconds(SLOT * (COUNT - 2));
+        OffsetDateTime cursor = since.plusSeconds(SLOT);
+        givenAggregatedPM(2, since);
+        BDDMockito.given(pmService.getWindowSince(SLOT, COUNT, since)).willReturn(new SlotWindow(since, 2, cursor));
+
+        MvcResult request = mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get("/v2/pm/events/aggregatedmetrics")
+                                .param("slot", String.valueOf(SLOT))
+                                .param("count", String.valueOf(COUNT))
+                                .param("since", since.toString())
+                )
+                .andExpect(
+                        MockMvcResultMatchers.request().asyncStarted()
+                )
+                .andReturn();
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.asyncDispatch(request)
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.slotStart", Matchers.is(since.toString()))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.slotCount", Matchers.is(2))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.cursor", Matchers.is(cursor.toString()))
+                );
+
+        BDDMockito
+                .verify(pmService)
+                .readAggregatedPMDataForTimeInterval(eq(SLOT), eq(2), eq(since), any());
+        BDDMockito.verify(pmService, VerificationModeFactory.times(0)).getWindow(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void retrieveColumnarPMDataWithoutStartTimeOrSince() throws Exception {
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get("/v2/pm/events/aggregatedmetrics")
+                                .param("slot", String.valueOf(SLOT))
+                                .param("count", String.valueOf(COUNT))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.status().isBadRequest()
+                );
+
+        BDDMockito.verifyNoInteractions(pmService);
+    }
+
+    @Test
+    public void retrieveColumnarPMDataForCellsAndMetrics() throws Exception {
+        givenAggregatedPM();
+        BDDMockito.given(pmService.getWindow(SLOT, COUNT, OffsetDateTime.parse(startTime)))
+                .willReturn(new SlotWindow(OffsetDateTime.parse(startTime), COUNT, OffsetDateTime.parse(startTime)));
+
+        MvcResult request = mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get("/v2/pm/events/aggregatedmetrics")
+                                .param("slot", String.valueOf(SLOT))
+                                .param("count", String.valueOf(COUNT))
+                                .param("startTime", startTime)
+                                .param("cellIds", "Cell1,Cell2")
+                                .param("metrics", "latency")
+                )
+                .andExpect(
+                        MockMvcResultMatchers.request().asyncStarted()
+                )
+                .andReturn();
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.asyncDispatch(request)
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].latency", hasSize(COUNT))
+                )
+                .andExpect(
+                        MockMvcResultMatchers.jsonPath("$.pm[0].throughput").doesNotExist()
+                );
+
+        ArgumentCaptor<MeasurementFilter> filter = ArgumentCaptor.forClass(MeasurementFilter.class);
+        BDDMockito
+                .verify(pmService)
+                .readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), eq(OffsetDateTime.parse(startTime)),
+                        filter.capture());
+        assertEquals(Set.of("Cell1", "Cell2"), filter.getValue().getCellIds());
+        assertEquals(Set.of("latency"), filter.getValue().getMetrics());
+    }
+
+    @Test
+    public void retrievePMDataWithUnknownMetric() throws Exception {
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get("/v1/pm/events/aggregatedmetrics")
+                                .param("slot", String.valueOf(SLOT))
+                                .param("count", String.valueOf(COUNT))
+                                .param("startTime", startTime)
+                                .param("metrics", "jitter")
+                )
+                .andExpect(
+                        MockMvcResultMatchers.status().isBadRequest()
+                );
+
+        BDDMockito.verifyNoInteractions(pmService);
+    }
+
+    @Test
+    public void retrievePMDataWithFutureStartTime() throws Exception {
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get("/v1/pm/events/aggregatedmetrics")
+                                .param("slot", String.valueOf(SLOT))
+                                .param("count", String.valueOf(COUNT))
+                                .param("startTime", OffsetDateTime.now().plusHours(1).toString())
+                                .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(
+                        MockMvcResultMatchers.status().isBadRequest()
+                );
+
+        BDDMockito.verifyNoInteractions(pmService);
+    }
+
+    @Test
+    public void retrievePMDataFailsBeforeResponseIsStartedWhenReadFails() {
+        BDDMockito.given(pmService.readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), any(), any()))
+                .willThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        Exception exception = assertThrows(Exception.class, () -> mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get("/v1/pm/events/aggregatedmetrics")
+                                .param("slot", String.valueOf(SLOT))
+                                .param("count", String.valueOf(COUNT))
+                                .param("startTime", startTime)
+                ));
+
+        assertTrue(exception.getCause() instanceof DataAccessResourceFailureException);
+    }
+
+    @Test
+    public void retrievePMDataLeavesDocumentUnterminatedWhenWritingFails() throws Exception {
+        BDDMockito.given(pmService.readAggregatedPMDataForTimeInterval(eq(SLOT), eq(COUNT), any(), any()))
+                .willReturn(consumer -> {
+                    pmDataList.forEach(consumer);
+                    throw new IllegalStateException("aggregation failed");
+                });
+
+        MvcResult request = startRequest();
+        assertThrows(Exception.class, () -> mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(request)));
+
+        String content = request.getResponse().getContentAsString();
+        assertTrue(content.startsWith("{\"pm\":[{\"cellId\":\"Cell1\""));
+        assertThrows(JsonProcessingException.class, () -> mapper.readTree(content));
+    }
+
+    private void givenAggregatedPM() {
+        givenAggregatedPM(COUNT, OffsetDateTime.parse(startTime));
+    }
+
+    private void givenAggregatedPM(int count, OffsetDateTime time) {
+        BDDMockito
+                .given(pmService.readAggregatedPMDataForTimeInterval(eq(SLOT), eq(count), eq(time), any()))
+                .willReturn(consumer -> pmDataList.forEach(consumer));
+    }
+
+    private void assertAggregatedPM(JsonNode aggregatedPM) {
+        assertEquals(1, aggregatedPM.get("itemsLength").asInt());
+        JsonNode performance = aggregatedPM.get("pm").get(0).get("performance");
+        assertEquals("Cell1", aggregatedPM.get("pm").get(0).get("cellId").asText());
+        assertEquals(12, performance.size());
+        assertEquals(20, performance.get(0).get("latency").asInt());
+        assertEquals(80, performance.get(0).get("throughput").asInt());
+    }
+
+    private MvcResult startRequest() throws Exception {
+        return startRequest(MediaType.APPLICATION_JSON);
+    }
+
+    private MvcResult startRequest(MediaType accept) throws Exception {
+        return startRequest("/v1/pm/events/aggregatedmetrics", accept);
+    }
+
+    /**
+     * The response is streamed, so the request is started first and its result is dispatched once it is written
+     */
+    private MvcResult startRequest(String url, MediaType accept) throws Exception {
+        return mockMvc
+                .perform(
+                        MockMvcRequestBuilders
+                                .get(url)
+                                .param("slot", String.valueOf(SLOT))
+                                .param("count", String.valueOf(COUNT))
+                                .param("startTime", startTime)
+                                .accept(accept)
+                )
+                .andExpect(
+                        MockMvcResultMatchers.request().asyncStarted()
+                )
+                .andReturn();
     }
 
     private String getSamplePMData() throws Exception {
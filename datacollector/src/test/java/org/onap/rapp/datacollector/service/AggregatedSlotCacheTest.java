@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.rapp.datacollector.entity.pm.PerformanceData;
+import org.onap.rapp.datacollector.service.configuration.AggregationProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AggregatedSlotCacheTest {
+
+    private static final long SLOT = 10_000_000L;
+    private static final long NOW_MILLIS = 1_600_000_000_000L;
+    private static final long NOW = NOW_MILLIS * 1000;
+
+    private final AtomicLong clock = new AtomicLong(NOW_MILLIS);
+    private SimpleMeterRegistry meterRegistry;
+    private AggregatedSlotCache cache;
+
+    @BeforeEach
+    void init() {
+        AggregationProperties properties = new AggregationProperties();
+        properties.getSlotCache().setMaxEntries(3);
+        properties.getSlotCache().setSettleTime(30_000);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AggregatedSlotCache(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void whenSlotIsSettledThenItIsCached() {
+        long slotStart = NOW - 40_000_000L;
+        SortedMap<String, PerformanceData> cells = new TreeMap<>(Map.of("Chn0000", new PerformanceData(35, 80)));
+
+        assertThat(cache.get(SLOT, slotStart)).isEmpty();
+        cache.put(SLOT, slotStart, cells);
+
+        assertThat(cache.get(SLOT, slotStart)).containsSame(cells);
+        assertThat(cache.get(2 * SLOT, slotStart)).isEmpty();
+        assertThat(meterRegistry.counter("ves.aggregation.slot.cache", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("ves.aggregation.slot.cache", "result", "miss").count()).isEqualTo(2);
+    }
+
+    @Test
+    void whenSlotIsNotSettledThenItIsNotCached() {
+        long slotStart = NOW - 35_000_000L;
+        cache.put(SLOT, slotStart, new TreeMap<>(Map.of("Chn0000", new PerformanceData(35, 80))));
+        assertThat(cache.get(SLOT, slotStart)).isEmpty();
+
+        clock.addAndGet(5_000);
+        cache.put(SLOT, slotStart, new TreeMap<>(Map.of("Chn0000", new PerformanceData(35, 80))));
+        assertThat(cache.get(SLOT, slotStart)).isPresent();
+    }
+
+    @Test
+    void whenCacheIsFullThenLeastRecentlyUsedSlotsAreEvicted() {
+        long first = NOW - 100_000_000L;
+        long second = first + SLOT;
+        long third = second + SLOT;
+        cache.put(SLOT, first, new TreeMap<>());
+        cache.put(SLOT, second, new TreeMap<>(Map.of("Chn0000", new PerformanceData(35, 80))));
+        cache.get(SLOT, first);
+
+        cache.put(SLOT, third, new TreeMap<>(Map.of("Chn0000", new PerformanceData(35, 80), "Chn0001", new PerformanceData(59, 90))));
+
+        assertThat(cache.get(SLOT, second)).isEmpty();
+        assertThat(cache.get(SLOT, first)).isPresent();
+        assertThat(cache.get(SLOT, third)).isPresent();
+    }
+}
@@ -14,27 +14,25 @@
 package org.onap.rapp.datacollector.service;
 
 import org.onap.rapp.datacollector.entity.DataAggregationInfo;
+import org.onap.rapp.datacollector.entity.pm.MeasurementRecord;
+import org.onap.rapp.datacollector.entity.pm.MetricRollup;
 import org.onap.rapp.datacollector.entity.pm.PMData;
-import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
-import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
-import org.onap.rapp.datacollector.entity.ves.CommonEventHeaderTest;
-import org.onap.rapp.datacollector.entity.ves.Event;
-import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
+import org.onap.rapp.datacollector.entity.pm.PerformanceData;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 public class DataAggregationServiceTest {
 
     public static final int MICRO_SECONDS_OF_SECOND = 1_000_000;
 
-    List<Event> events;
+    List<MeasurementRecord> events;
     DataAggregationInfo dataAggregationInfo;
 
     DataAggregationService dataAggregationService;
@@ -48,9 +46,7 @@ public class DataAggregationServiceTest {
 
 
         for (int i = 0; i < 25; i++) {
-            CommonEventHeader header = CommonEventHeaderTest.createDumyCommonEventHeaderWithLastEpochMicro(startTime);
-            MeasurementFields measurements = createMeasurementFields();
-            events.add(Event.of(header, measurements));
+            events.add(new MeasurementRecord("Cell1", startTime, 20, 80));
             startTime = startTime + MICRO_SECONDS_OF_SECOND;
         }
     }
@@ -64,19 +60,9 @@ public class DataAggregationServiceTest {
                 .build();
     }
 
-    private MeasurementFields createMeasurementFields() {
-        AdditionalMeasurements latency = AdditionalMeasurements.of("latency",
-                Map.of("latency", "20"));
-        AdditionalMeasurements throughput = AdditionalMeasurements.of("throughput",
-                Map.of("throughput", "80"));
-        return MeasurementFields.builder()
-                .additionalMeasurements(List.of(latency, throughput))
-                .build();
-    }
-
     @Test
     public void verifyAggregationData() {
-        PMData pmEntity = dataAggregationService.getAggregatedDataFromEventsForCell("Cell1", events, this.dataAggregationInfo);
+        PMData pmEntity = aggregate(this.dataAggregationInfo);
 
         pmEntity.getPerformance().forEach(pm ->{
             Assert.assertEquals(Optional.of(pm.getLatency()), Optional.of(20));
@@ -93,7 +79,7 @@ public class DataAggregationServiceTest {
                 .endTime(startTime + 5 * 6 * MICRO_SECONDS_OF_SECOND)
                 .build();
 
-        PMData pmEntity = dataAggregationService.getAggregatedDataFromEventsForCell("Cell1", events, dataAggregationInfo);
+        PMData pmEntity = aggregate(dataAggregationInfo);
 
         Assert.assertNull(pmEntity.getPerformance().get(0).getLatency());
         Assert.assertNull(pmEntity.getPerformance().get(0).getThroughput());
@@ -109,7 +95,7 @@ public class DataAggregationServiceTest {
                 .endTime(startTime + 5 * 6 * MICRO_SECONDS_OF_SECOND)
                 .build();
 
-        PMData pmEntity = dataAggregationService.getAggregatedDataFromEventsForCell("Cell1", events, dataAggregationInfo);
+        PMData pmEntity = aggregate(dataAggregationInfo);
 
         Assert.assertNull(pmEntity.getPerformance().get(5).getLatency());
         Assert.assertNull(pmEntity.getPerformance().get(5).getThroughput());
@@ -118,7 +104,7 @@ public class DataAggregationServiceTest {
     @Test
     public void verifyAggregationDataWithEmptySlotInMiddle() {
         removeSecondSlotEvents();
-        PMData pmEntity = dataAggregationService.getAggregatedDataFromEventsForCell("Cell1", events, dataAggregationInfo);
+        PMData pmEntity = aggregate(dataAggregationInfo);
 
         Assert.assertNull(pmEntity.getPerformance().get(1).getLatency());
         Assert.assertNull(pmEntity.getPerformance().get(1).getThroughput());
@@ -130,4 +116,118 @@ public class DataAggregationServiceTest {
         }
     }
 
+    @Test
+    public void verifyMissingMetricIsNotAveraged() {
+        events.set(0, new MeasurementRecord("Cell1", events.get(0).getLastEpochMicrosec(), null, 40));
+
+        PMData pmEntity = aggregate(dataAggregationInfo);
+
+        Assert.assertEquals(Integer.valueOf(20), pmEntity.getPerformance().get(0).getLatency());
+        Assert.assertEquals(Integer.valueOf(73), pmEntity.getPerformance().get(0).getThroughput());
+    }
+
+    @Test
+    public void verifyEventsAreAggregatedInAnyOrder() {
+        PMData ordered = aggregate(dataAggregationInfo);
+        Collections.reverse(events);
+        events.add(3, new MeasurementRecord("Cell2", events.get(3).getLastEpochMicrosec(), 10, 10));
+
+        List<PMData> pmData = aggregate(dataAggregationService, dataAggregationInfo);
+
+        Assert.assertEquals(2, pmData.size());
+        PMData reversed = pmData.get(0);
+        Assert.assertEquals("Cell1", reversed.getCellId());
+        for (int i = 0; i < ordered.getPerformance().size(); i++) {
+            Assert.assertEquals(ordered.getPerformance().get(i).getLatency(), reversed.getPerformance().get(i).getLatency());
+            Assert.assertEquals(ordered.getPerformance().get(i).getThroughput(), reversed.getPerformance().get(i).getThroughput());
+        }
+        Assert.assertEquals(Integer.valueOf(10), pmData.get(1).getPerformance().get(4).getLatency());
+    }
+
+    @Test
+    public void verifyEventsAfterWindowAreSkipped() {
+        long endTime = dataAggregationInfo.getEndTime();
+        events.add(new MeasurementRecord("Cell1", endTime + 1, 100, 100));
+        events.add(new MeasurementRecord("Cell2", endTime + 1, 100, 100));
+
+        PMData pmEntity = aggregate(dataAggregationInfo);
+
+        Assert.assertEquals(5, pmEntity.getPerformance().size());
+        Assert.assertEquals(Integer.valueOf(20), pmEntity.getPerformance().get(4).getLatency());
+    }
+
+    @Test
+    public void verifyCellsAreOrderedByCellId() {
+        long startTime = dataAggregationInfo.getStartTime();
+        for (int i = 999; i >= 0; i--) {
+            events.add(new MeasurementRecord(String.format("Cell%04d", i), startTime + i * 1000L, i, 100));
+        }
+
+        List<PMData> pmData = aggregate(dataAggregationService, dataAggregationInfo);
+
+        Assert.assertEquals(1001, pmData.size());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(String.format("Cell%04d", i), pmData.get(i).getCellId());
+            Assert.assertEquals(Integer.valueOf(i), pmData.get(i).getPerformance().get(0).getLatency());
+        }
+        Assert.assertEquals("Cell1", pmData.get(1000).getCellId());
+    }
+
+    private PMData aggregate(DataAggregationInfo dataAggregationInfo) {
+        List<PMData> pmData = aggregate(dataAggregationService, dataAggregationInfo);
+        Assert.assertEquals(1, pmData.size());
+        return pmData.get(0);
+    }
+
+    private List<PMData> aggregate(DataAggregationService service, DataAggregationInfo dataAggregationInfo) {
+        List<PMData> pmData = new ArrayList<>();
+        service.getAggregatedData(visitor -> events.forEach(visitor::visit), dataAggregationInfo).forEach(pmData::add);
+        return pmData;
+    }
+
+    @Test
+    public void verifyAggregationFromRollupsMatchesAggregationFromEvents() {
+        long start = dataAggregationInfo.getStartTime();
+        long second = MICRO_SECONDS_OF_SECOND;
+        List<MetricRollup> rollups = List.of(
+                new MetricRollup("Cell1", "latency", start, 100, 5, 20, 20),
+                new MetricRollup("Cell1", "throughput", start, 400, 5, 80, 80),
+                new MetricRollup("Cell1", "latency", start + 10 * second, 30, 2, 10, 20),
+                new MetricRollup("Cell1", "latency", start + 15 * second, 45, 3, 10, 20),
+                new MetricRollup("Cell1", "latency", start + 25 * second, 1, 1, 1, 1));
+
+        List<PMData> pmData = new ArrayList<>();
+        dataAggregationService.getAggregatedData(rollups, visitor -> {
+        }, dataAggregationInfo).forEach(pmData::add);
+
+        Assert.assertEquals(1, pmData.size());
+        List<PerformanceData> performance = pmData.get(0).getPerformance();
+        Assert.assertEquals(5, performance.size());
+        Assert.assertEquals(Integer.valueOf(20), performance.get(0).getLatency());
+        Assert.assertEquals(Integer.valueOf(80), performance.get(0).getThroughput());
+        Assert.assertNull(performance.get(1).getLatency());
+        Assert.assertEquals(Integer.valueOf(15), performance.get(2).getLatency());
+        Assert.assertNull(performance.get(2).getThroughput());
+        Assert.assertEquals(Integer.valueOf(15), performance.get(3).getLatency());
+        Assert.assertNull(performance.get(4).getLatency());
+    }
+
+    @Test
+    public void verifyRollupsAndMeasurementsAreMergedIntoSameSlot() {
+        long start = dataAggregationInfo.getStartTime();
+        List<MetricRollup> rollups = List.of(new MetricRollup("Cell1", "latency", start + 5 * MICRO_SECONDS_OF_SECOND, 30, 3, 10, 10));
+        List<PMData> pmData = new ArrayList<>();
+
+        dataAggregationService.getAggregatedData(rollups, visitor -> {
+            visitor.visit(new MeasurementRecord("Cell1", start, 20, 80));
+            visitor.visit(new MeasurementRecord("Cell1", start + 8 * MICRO_SECONDS_OF_SECOND, 50, null));
+        }, dataAggregationInfo).forEach(pmData::add);
+
+        Assert.assertEquals(1, pmData.size());
+        List<PerformanceData> performance = pmData.get(0).getPerformance();
+        Assert.assertEquals(Integer.valueOf(20), performance.get(0).getLatency());
+        Assert.assertEquals(Integer.valueOf(80), performance.get(0).getThroughput());
+        Assert.assertEquals(Integer.valueOf(20), performance.get(1).getLatency());
+        Assert.assertNull(performance.get(1).getThroughput());
+    }
 }
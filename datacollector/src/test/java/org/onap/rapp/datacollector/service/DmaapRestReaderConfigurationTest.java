@@ -17,8 +17,12 @@ package org.onap.rapp.datacollector.service;
 import static org.junit.Assert.assertEquals;
 
 import java.util.List;
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.onap.rapp.datacollector.service.configuration.AggregationProperties;
 import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
 import org.onap.rapp.datacollector.service.configuration.DmaapProperties;
 import org.onap.rapp.datacollector.service.configuration.DmaapRestReaderConfiguration;
@@ -31,16 +35,19 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 @RunWith(SpringRunner.class)
 @ComponentScan("org.onap.rapp.datacollector.service.configuration")
-@EnableConfigurationProperties({DmaapProperties.class, DatabaseProperties.class})
+@EnableConfigurationProperties({DmaapProperties.class, DatabaseProperties.class, AggregationProperties.class})
 @ContextConfiguration(classes = {DmaapRestReaderConfiguration.class})
 @TestPropertySource(properties = {"dmaap.host=localhost",
         "dmaap.protocol=http",
         "dmaap.port=8080",
         "dmaap.measurements-topics=a-topic,b-topic",
+        "dmaap.max-in-flight-per-topic=2",
+        "dmaap.timeout=15000",
         "database.url=jdbc:mysql://172.17.0.2:3306/ves?createDatabaseIfNotExist=true",
         "database.username=root",
         "database.password=mypass",
-        "database.driver-class-name=org.mariadb.jdbc.Driver"
+        "database.driver-class-name=org.mariadb.jdbc.Driver",
+        "database.pool.maximum-pool-size=5"
 })
 
 public class DmaapRestReaderConfigurationTest {
@@ -48,6 +55,9 @@ public class DmaapRestReaderConfigurationTest {
     @Autowired
     private DmaapRestReaderConfiguration config;
 
+    @Autowired
+    private DataSource dataSource;
+
     @Test
     public void testUrlConstruction() {
         final List<String> actual = config.getMeasurementsTopicUrls();
@@ -58,4 +68,21 @@ public class DmaapRestReaderConfigurationTest {
         assertEquals(expected1, actual.get(0));
         assertEquals(expected2, actual.get(1));
     }
+
+    @Test
+    public void testConnectionPoolConfiguration() {
+        HikariDataSource pool = (HikariDataSource) dataSource;
+
+        assertEquals(5, pool.getMaximumPoolSize());
+        assertEquals(60000, pool.getLeakDetectionThreshold());
+        assertEquals("true", pool.getDataSourceProperties().getProperty("useServerPrepStmts"));
+        assertEquals("250", pool.getDataSourceProperties().getProperty("prepStmtCacheSize"));
+    }
+
+    @Test
+    public void testDmaapConnectionConfiguration() {
+        assertEquals(4, config.getDmaapProperties().getPollingThreads());
+        assertEquals(20000, config.getDmaapProperties().getReadTimeout());
+        assertEquals(3000, config.getDmaapProperties().getConnectTimeout());
+    }
 }
@@ -14,6 +14,7 @@
 package org.onap.rapp.datacollector.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.onap.rapp.datacollector.TestHelpers.getEmptyEvent;
 import static org.onap.rapp.datacollector.TestHelpers.getTestEventFromFile;
 
@@ -22,6 +23,7 @@ import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.RawPayload;
 
 import com.google.gson.JsonParseException;
 
@@ -47,6 +49,24 @@ public class FileReadyParserImplTest {
         });
     }
 
+    @Test
+    public void testRawPayloadIsSharedByAllEvents() {
+        List<Event> listOfEvents = parser.parse(testFileReadyContent);
+        RawPayload payload = listOfEvents.get(0).payload;
+        assertEquals(testFileReadyContent, payload.payload);
+        listOfEvents.forEach(event -> {
+            assertSame(payload, event.payload);
+            assertEquals("", event.raw);
+        });
+    }
+
+    @Test
+    public void testRawPayloadHasTimeOfNewestEvent() {
+        List<Event> listOfEvents = parser.parse(testFileReadyContent);
+        long newest = listOfEvents.stream().mapToLong(event -> event.commonEventHeader.getLastEpochMicrosec()).max().getAsLong();
+        assertEquals(newest, listOfEvents.get(0).payload.lastEpochMicrosec);
+    }
+
     @Test(expected = JsonParseException.class)
     public void parseEmpty() {
         parser.parse(getEmptyEvent());
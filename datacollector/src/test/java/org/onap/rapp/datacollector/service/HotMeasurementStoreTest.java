@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+
+class HotMeasurementStoreTest {
+
+    private static final long HORIZON = 60_000;
+    private static final long STARTED_AT = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(STARTED_AT);
+
+    private IngestProperties properties;
+
+    private HotMeasurementStore store;
+
+    @BeforeEach
+    public void init() {
+        properties = new IngestProperties();
+        properties.getHotStore().setHorizon(HORIZON);
+        properties.getHotStore().setCellCapacity(4);
+        store = new HotMeasurementStore(properties, clock::get);
+    }
+
+    @Test
+    void whenEventsAreAddedThenWindowVisitsThem() {
+        long start = micros(STARTED_AT);
+        store.add(event("Cell2", start + 20, 30, null));
+        store.add(event("Cell1", start + 10, 20, 80));
+        store.add(event("Cell1", start + 500, 25, 85));
+
+        List<String> measurements = visit(start, start + 100);
+
+        assertEquals(List.of("Cell1:" + (start + 10) + ":20:80",
+                "Cell2:" + (start + 20) + ":30:" + MeasurementVisitor.MISSING), measurements);
+    }
+
+    @Test
+    void whenTimePassesThenCoverageStartsAtHorizon() {
+        assertEquals(micros(STARTED_AT), store.coveredFrom());
+
+        clock.addAndGet(2 * HORIZON);
+
+        assertEquals(micros(STARTED_AT + HORIZON), store.coveredFrom());
+    }
+
+    @Test
+    void whenRingBufferOverflowsThenCoverageStartsAfterLostEntry() {
+        long start = micros(STARTED_AT);
+        for (int i = 1; i <= 5; i++) {
+            store.add(event("Cell1", start + i, i, i));
+        }
+
+        assertEquals(start + 2, store.coveredFrom());
+        assertEquals(4, visit(start, start + 10).size());
+    }
+
+    @Test
+    void whenRingBufferOverflowsThenVisitorGetsEntriesFromOldest() {
+        long start = micros(STARTED_AT);
+        for (int i = 1; i <= 6; i++) {
+            store.add(event("Cell1", start + i, i, i == 4 ? null : i));
+        }
+        List<Long> timestamps = new ArrayList<>();
+        List<Integer> throughputs = new ArrayList<>();
+
+        store.forEach(start, start + 10, (cellId, timestamp, latency, throughput) -> {
+            timestamps.add(timestamp);
+            throughputs.add(throughput);
+        });
+
+        assertEquals(List.of(start + 3, start + 4, start + 5, start + 6), timestamps);
+        assertEquals(List.of(3, MeasurementVisitor.MISSING, 5, 6), throughputs);
+    }
+
+    @Test
+    void whenCellsAreFilteredThenOnlyTheirEntriesAreVisited() {
+        long start = micros(STARTED_AT);
+        store.add(event("Cell1", start + 1, 20, 80));
+        store.add(event("Cell2", start + 2, 30, 90));
+        List<String> cellIds = new ArrayList<>();
+
+        store.forEach(start, start + 10, MeasurementFilter.builder().cellIds(Set.of("Cell2", "Cell3")).build(),
+                (cellId, timestamp, latency, throughput) -> cellIds.add(cellId));
+
+        assertEquals(List.of("Cell2"), cellIds);
+    }
+
+    @Test
+    void whenEventIsOlderThanHorizonThenItIsIgnored() {
+        clock.addAndGet(2 * HORIZON);
+        store.add(event("Cell1", micros(STARTED_AT), 1, 1));
+
+        assertTrue(visit(0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void whenCellIsIdleLongerThanHorizonThenItIsEvicted() {
+        store.add(event("Cell1", micros(STARTED_AT) + 1, 1, 1));
+        clock.addAndGet(2 * HORIZON);
+
+        store.evictIdleCells();
+
+        assertTrue(visit(0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void whenDisabledThenNothingIsCovered() {
+        properties.getHotStore().setEnabled(false);
+
+        assertEquals(Long.MAX_VALUE, store.coveredFrom());
+    }
+
+    private List<String> visit(long startTime, long endTime) {
+        List<String> measurements = new ArrayList<>();
+        store.forEach(startTime, endTime, (cellId, timestamp, latency, throughput) ->
+                measurements.add(cellId + ":" + timestamp + ":" + latency + ":" + throughput));
+        Collections.sort(measurements);
+        return measurements;
+    }
+
+    private static long micros(long millis) {
+        return millis * 1000;
+    }
+
+    private static Event event(String cellId, long lastEpochMicrosec, Integer latency, Integer throughput) {
+        Event event = Event.of(CommonEventHeader.builder().lastEpochMicrosec(lastEpochMicrosec).build(),
+                MeasurementFields.builder().build());
+        event.cellId = cellId;
+        event.latency = latency;
+        event.throughput = throughput;
+        return event;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.onap.rapp.datacollector.service.configuration.DmaapProperties;
+import org.onap.rapp.datacollector.service.configuration.DmaapRestReaderConfiguration;
+
+import com.google.gson.JsonParseException;
+
+class LongPollingVesConsumerTest {
+
+    private static final String TOPIC_URL = "http://localhost/a-topic";
+
+    @Mock
+    private VesRetrievalService retrievalService;
+
+    @Mock
+    private DmaapRestReaderConfiguration config;
+
+    private DmaapProperties properties;
+
+    private LongPollingVesConsumer consumer;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        properties = new DmaapProperties();
+        properties.setLimit(2);
+        properties.setEmptyPollBackoff(10);
+        Mockito.when(config.getDmaapProperties()).thenReturn(properties);
+        Mockito.when(config.getMeasurementsTopicUrls()).thenReturn(Collections.singletonList(TOPIC_URL));
+        consumer = new LongPollingVesConsumer(retrievalService, config, Runnable::run);
+    }
+
+    @Test
+    void whenFullBatchIsReadThenTopicIsReadAgainRightAway() {
+        Mockito.when(retrievalService.retrieveAndStoreVesEvents(TOPIC_URL)).thenReturn(2);
+        assertFalse(consumer.pollOnce(TOPIC_URL));
+    }
+
+    @Test
+    void whenPartialBatchIsReadThenTopicIsReadAgainRightAway() {
+        Mockito.when(retrievalService.retrieveAndStoreVesEvents(TOPIC_URL)).thenReturn(1);
+        assertFalse(consumer.pollOnce(TOPIC_URL));
+    }
+
+    @Test
+    void whenTopicIsEmptyThenConsumerBacksOff() {
+        Mockito.when(retrievalService.retrieveAndStoreVesEvents(TOPIC_URL)).thenReturn(0);
+        assertTrue(consumer.pollOnce(TOPIC_URL));
+    }
+
+    @Test
+    void whenStoringFailsThenConsumerBacksOff() {
+        Mockito.when(retrievalService.retrieveAndStoreVesEvents(TOPIC_URL)).thenThrow(new JsonParseException("test"));
+        assertTrue(consumer.pollOnce(TOPIC_URL));
+    }
+
+    @Test
+    void whenStoppedThenPollInFlightIsAwaited() throws Exception {
+        properties.setTimeout(5000);
+        CountDownLatch polling = new CountDownLatch(1);
+        AtomicBoolean stored = new AtomicBoolean();
+        Mockito.when(retrievalService.retrieveAndStoreVesEvents(anyString())).thenAnswer(invocation -> {
+            polling.countDown();
+            Thread.sleep(200);
+            stored.set(true);
+            return 0;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            consumer = new LongPollingVesConsumer(retrievalService, config, executor);
+            consumer.start();
+            assertTrue(polling.await(1, TimeUnit.SECONDS));
+
+            AtomicBoolean stopped = new AtomicBoolean();
+            consumer.stop(() -> stopped.set(true));
+
+            assertTrue(stored.get());
+            assertTrue(stopped.get());
+            assertFalse(consumer.isRunning());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.onap.rapp.datacollector.TestHelpers.getTestEventFromFile;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.onap.rapp.datacollector.entity.pm.MeasurementRecord;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
+
+class MeasurementColumnsTest {
+
+    @Test
+    void whenFileReadyEventIsParsedThenTypedColumnsAreFilled() {
+        Event event = new FileReadyParserImpl().parse(getTestEventFromFile("/sample-fileready.txt")).get(0);
+        assertFalse(event.typed);
+
+        MeasurementColumns.fill(event);
+
+        assertTrue(event.typed);
+        assertEquals("Chn0000", event.cellId);
+        assertEquals(110, event.latency);
+        assertEquals(55, event.throughput);
+    }
+
+    @Test
+    void whenMetricIsMissingOrNotNumberThenColumnIsNull() {
+        Event event = Event.of(CommonEventHeader.builder().lastEpochMicrosec(5L).build(), MeasurementFields.builder()
+                .additionalMeasurements(List.of(
+                        AdditionalMeasurements.of(PMService.CELL_FIELD_NAME, Map.of(PMService.CELL_FIELD_NAME, "Cell1")),
+                        AdditionalMeasurements.of(MeasurementColumns.LATENCY_FIELD_NAME, Map.of("value", "n/a"))))
+                .build());
+
+        MeasurementRecord record = MeasurementColumns.toRecord(event);
+
+        assertEquals("Cell1", record.getCellId());
+        assertEquals(5L, record.getLastEpochMicrosec());
+        assertNull(record.getLatency());
+        assertNull(record.getThroughput());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.onap.rapp.datacollector.entity.DataAggregationInfo;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class MetricRollupRepositoryTest {
+
+    private static final long SECOND = 1_000_000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DatabaseProperties databaseProperties;
+
+    private MetricRollupRepository repository;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        databaseProperties = new DatabaseProperties();
+        repository = new MetricRollupRepository(jdbcTemplate, databaseProperties);
+    }
+
+    @Test
+    void whenTimestampIsAtSlotEndThenItBelongsToThatSlot() {
+        assertEquals(0, repository.slotStartOf(1));
+        assertEquals(0, repository.slotStartOf(10 * SECOND));
+        assertEquals(10 * SECOND, repository.slotStartOf(10 * SECOND + 1));
+    }
+
+    @Test
+    void whenWindowIsAlignedToBaseSlotThenRollupsCanAnswer() {
+        assertTrue(repository.canAnswer(info(20, 100)));
+        assertFalse(repository.canAnswer(info(15, 100)));
+        assertFalse(repository.canAnswer(info(20, 105)));
+
+        databaseProperties.getRollup().setEnabled(false);
+
+        assertFalse(repository.canAnswer(info(20, 100)));
+    }
+
+    private static DataAggregationInfo info(int slotSeconds, long startSeconds) {
+        return DataAggregationInfo.builder()
+                .slot((int) (slotSeconds * SECOND))
+                .startTime(startSeconds * SECOND)
+                .endTime((startSeconds + 3L * slotSeconds) * SECOND)
+                .build();
+    }
+}
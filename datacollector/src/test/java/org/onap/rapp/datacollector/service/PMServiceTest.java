@@ -17,57 +17,402 @@ import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.onap.rapp.datacollector.TestHelpers.getTestEventFromFile;
 import static org.onap.rapp.datacollector.service.PMService.CELL_FIELD_NAME;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.mockito.stubbing.Answer;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.SlotWindow;
 import org.onap.rapp.datacollector.entity.pm.AggregatedPM;
+import org.onap.rapp.datacollector.entity.pm.MeasurementRecord;
+import org.onap.rapp.datacollector.entity.pm.MetricRollup;
 import org.onap.rapp.datacollector.entity.pm.PMData;
+import org.onap.rapp.datacollector.entity.pm.PerformanceData;
 import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
 import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
 import org.onap.rapp.datacollector.entity.ves.Event;
 import org.onap.rapp.datacollector.entity.ves.EventAPI;
 import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
+import org.onap.rapp.datacollector.entity.ves.RawPayload;
+import org.onap.rapp.datacollector.service.configuration.AggregationProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class PMServiceTest {
 
     public static final String TEST_CELL_ID = "Chn0000";
+    private static final OffsetDateTime ALIGNED_START = OffsetDateTime.ofInstant(Instant.ofEpochSecond(1_600_000_000L), ZoneOffset.UTC);
 
     PMService pmService;
 
     @Mock
     VesPersisterSqlImpl vesPersisterSql;
 
-    @Mock
-    DataAggregationService aggregationService;
+    @Spy
+    DataAggregationService aggregationService = new DataAggregationService();
 
     @Mock
     ParserFactory parser;
 
+    @Mock
+    HotMeasurementStore hotStore;
+
+    @Mock
+    MetricRollupRepository rollups;
+
+    @Mock
+    AggregatedSlotCache slotCache;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        pmService = spy(new PMService(vesPersisterSql, aggregationService, parser));
+        doReturn(Long.MAX_VALUE).when(hotStore).coveredFrom();
+        pmService = spy(new PMService(vesPersisterSql, aggregationService, parser, hotStore, rollups, slotCache));
     }
 
     @Test
     void testAggregatedPMDataForTimeInterval() {
-        doReturn(getTestApiEvents()).when(vesPersisterSql).findEventsByTimeWindow(anyLong(), anyLong());
-        doReturn(new PMData()).when(aggregationService).getAggregatedDataFromEventsForCell(any(), any(), any());
+        doAnswer(untypedEvents(getTestApiEvents())).when(vesPersisterSql).forEachUntypedEventInTimeWindow(anyLong(), anyLong(), any());
         doReturn(getTestEvents()).when(parser).getParsedEvents(any());
         AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, OffsetDateTime.now());
         assertThat(aggregatedPM.getItemsLength()).isOne();
     }
 
+    @Test
+    void testSharedPayloadIsParsedOnce() {
+        String payload = getTestEventFromFile("/sample-fileready.txt");
+        doAnswer(untypedEvents(asList(EventAPI.builder().id(1L).rawdata("").payloadId(5L).build(),
+                EventAPI.builder().id(2L).rawdata("").payloadId(5L).build())))
+                .when(vesPersisterSql).forEachUntypedEventInTimeWindow(anyLong(), anyLong(), any());
+        doReturn(List.of(RawPayload.builder().withEvent(5L).withPayload(payload).build()))
+                .when(vesPersisterSql).findPayloadsByIds(List.of(5L));
+        doReturn(getTestEvents()).when(parser).getParsedEvents(any());
+
+        AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, OffsetDateTime.now());
+
+        assertThat(aggregatedPM.getItemsLength()).isOne();
+        verify(parser, times(1)).getParsedEvents(payload);
+    }
+
+    @Test
+    void testTypedMeasurementsAreNotParsed() {
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, 1L, 35, 80), new MeasurementRecord("Chn0001", 2L, 59, 90),
+                new MeasurementRecord(TEST_CELL_ID, 3L, 40, 85)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(anyLong(), anyLong(), any(), any());
+
+        AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, OffsetDateTime.now());
+
+        assertThat(aggregatedPM.getItemsLength()).isEqualTo(2);
+        verify(parser, never()).getParsedEvents(any());
+        verify(vesPersisterSql, never()).findEventsByTimeWindow(anyLong(), anyLong());
+    }
+
+    @Test
+    void testRecentWindowIsServedFromHotStore() {
+        OffsetDateTime startTime = OffsetDateTime.now();
+        doReturn(0L).when(hotStore).coveredFrom();
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, 1L, 35, 80)))
+                .when(hotStore).forEach(anyLong(), anyLong(), any(), any());
+
+        AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, startTime);
+
+        assertThat(aggregatedPM.getItemsLength()).isOne();
+        verifyNoInteractions(vesPersisterSql);
+    }
+
+    @Test
+    void testOlderPartOfWindowIsReadFromDatabase() {
+        OffsetDateTime startTime = OffsetDateTime.now();
+        long start = startTime.toEpochSecond() * 1_000_000;
+        long hotFrom = start + 50 * 1_000_000L;
+        doReturn(hotFrom).when(hotStore).coveredFrom();
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, start + 1, 35, 80)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(hotFrom - 1), any(), any());
+        doAnswer(visit(new MeasurementRecord("Chn0001", hotFrom, 59, 90)))
+                .when(hotStore).forEach(eq(hotFrom), eq(start + 100 * 1_000_000L), any(), any());
+
+        AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, startTime);
+
+        assertThat(aggregatedPM.getItemsLength()).isEqualTo(2);
+    }
+
+    @Test
+    void testAlignedWindowIsMergedFromRollups() {
+        long start = ALIGNED_START.toEpochSecond() * 1_000_000;
+        doReturn(true).when(rollups).canAnswer(any());
+        doAnswer(invocation -> Math.floorDiv((long) invocation.getArgument(0) - 1, 10_000_000L) * 10_000_000L)
+                .when(rollups).slotStartOf(anyLong());
+        doReturn(List.of(new MetricRollup(TEST_CELL_ID, "latency", start + 10_000_000L, 70L, 2L, 30, 40)))
+                .when(rollups).find(eq(start), eq(start + 100_000_000L), any());
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, start, 20, 80)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(start), any(), any());
+
+        AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, ALIGNED_START);
+
+        assertThat(aggregatedPM.getItemsLength()).isOne();
+        List<PerformanceData> performance = aggregatedPM.getPm().get(0).getPerformance();
+        assertThat(performance.get(0).getLatency()).isEqualTo(20);
+        assertThat(performance.get(0).getThroughput()).isEqualTo(80);
+        assertThat(performance.get(1).getLatency()).isEqualTo(35);
+        verify(vesPersisterSql, times(1)).forEachMeasurementInTimeWindow(anyLong(), anyLong(), any(), any());
+        verify(parser, never()).getParsedEvents(any());
+    }
+
+    @Test
+    void testUntypedEventsAreMergedWithRollups() {
+        long start = ALIGNED_START.toEpochSecond() * 1_000_000;
+        doReturn(true).when(rollups).canAnswer(any());
+        doAnswer(invocation -> Math.floorDiv((long) invocation.getArgument(0) - 1, 10_000_000L) * 10_000_000L)
+                .when(rollups).slotStartOf(anyLong());
+        doReturn(List.of(new MetricRollup(TEST_CELL_ID, "latency", start, 35L, 1L, 35, 35)))
+                .when(rollups).find(anyLong(), anyLong(), any());
+        doAnswer(untypedEvents(List.of(EventAPI.builder().id(1L).rawdata("raw").build())))
+                .when(vesPersisterSql).forEachUntypedEventInTimeWindow(eq(start + 1), eq(start + 100_000_000L), any());
+        doReturn(List.of(parsedEvent("Chn0001", start + 15_000_000L, 50), parsedEvent("Chn0001", start + 200_000_000L, 90)))
+                .when(parser).getParsedEvents("raw");
+
+        AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, ALIGNED_START);
+
+        assertThat(aggregatedPM.getItemsLength()).isEqualTo(2);
+        assertThat(aggregatedPM.getPm().get(0).getCellId()).isEqualTo(TEST_CELL_ID);
+        assertThat(aggregatedPM.getPm().get(0).getPerformance().get(0).getLatency()).isEqualTo(35);
+        List<PerformanceData> untyped = aggregatedPM.getPm().get(1).getPerformance();
+        assertThat(untyped.get(1).getLatency()).isEqualTo(50);
+        assertThat(untyped.stream().filter(performance -> performance.getLatency() != null)).hasSize(1);
+    }
+
+    @Test
+    void testWindowPartNotPersistedForSureIsNotMergedFromRollups() {
+        long start = ALIGNED_START.toEpochSecond() * 1_000_000;
+        long hotFrom = start + 45_000_000L;
+        doReturn(hotFrom).when(hotStore).coveredFrom();
+        doReturn(true).when(rollups).canAnswer(any());
+        doAnswer(invocation -> Math.floorDiv((long) invocation.getArgument(0) - 1, 10_000_000L) * 10_000_000L)
+                .when(rollups).slotStartOf(anyLong());
+        doReturn(List.of(new MetricRollup(TEST_CELL_ID, "latency", start + 30_000_000L, 30L, 1L, 30, 30)))
+                .when(rollups).find(eq(start), eq(start + 40_000_000L), any());
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, start + 42_000_000L, 50, null)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start + 40_000_001L), eq(hotFrom - 1), any(), any());
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, hotFrom, 70, null)))
+                .when(hotStore).forEach(eq(hotFrom), eq(start + 100_000_000L), any(), any());
+
+        AggregatedPM aggregatedPM = pmService.getAggregatedPMDataForTimeInterval(10, 10, ALIGNED_START);
+
+        List<PerformanceData> performance = aggregatedPM.getPm().get(0).getPerformance();
+        assertThat(performance.get(3).getLatency()).isEqualTo(30);
+        assertThat(performance.get(4).getLatency()).isEqualTo(60);
+        verify(rollups).find(eq(start), eq(start + 40_000_000L), any());
+    }
+
+    private static Event parsedEvent(String cellId, long lastEpochMicrosec, int latency) {
+        return Event.of(CommonEventHeader.builder().lastEpochMicrosec(lastEpochMicrosec).build(),
+                MeasurementFields.builder().additionalMeasurements(asList(
+                        AdditionalMeasurements.builder().withName(CELL_FIELD_NAME).withHashMap(Map.of(CELL_FIELD_NAME, cellId)).build(),
+                        AdditionalMeasurements.builder().withName("latency").withHashMap(Map.of("latency", String.valueOf(latency))).build()))
+                        .build());
+    }
+
+    @Test
+    void testCompletedSlotsAreReusedFromSlotCache() {
+        long now = 1_600_000_000_000L;
+        AggregationProperties properties = new AggregationProperties();
+        properties.getSlotCache().setSettleTime(0);
+        PMService cachedService = new PMService(vesPersisterSql, new DataAggregationService(), parser, hotStore, rollups,
+                new AggregatedSlotCache(properties, new SimpleMeterRegistry(), () -> now));
+        OffsetDateTime startTime = OffsetDateTime.ofInstant(Instant.ofEpochMilli(now).minusSeconds(60), ZoneOffset.UTC);
+        long start = startTime.toEpochSecond() * 1_000_000;
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, start + 5_000_000L, 35, 80)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(start + 30_000_000L), any(), any());
+
+        AggregatedPM first = cachedService.getAggregatedPMDataForTimeInterval(10, 3, startTime.plusSeconds(3));
+        AggregatedPM second = cachedService.getAggregatedPMDataForTimeInterval(10, 3, startTime);
+        AggregatedPM shifted = cachedService.getAggregatedPMDataForTimeInterval(10, 3, startTime.plusSeconds(10));
+
+        verify(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(start + 30_000_000L), any(), any());
+        verify(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start + 30_000_000L), eq(start + 40_000_000L), any(), any());
+        verify(vesPersisterSql, times(2)).forEachMeasurementInTimeWindow(anyLong(), anyLong(), any(), any());
+        assertThat(first.getPm().get(0).getPerformance()).hasSize(3);
+        assertThat(first.getPm().get(0).getPerformance().get(0).getLatency()).isEqualTo(35);
+        assertThat(second.getPm().get(0).getPerformance().get(0).getLatency()).isEqualTo(35);
+        assertThat(shifted.getPm().get(0).getPerformance()).hasSize(3);
+        assertThat(shifted.getPm().get(0).getPerformance().get(0).getLatency()).isNull();
+    }
+
+    private static Answer<Void> visit(MeasurementRecord... measurements) {
+        return invocation -> {
+            MeasurementVisitor visitor = (MeasurementVisitor) invocation.getArgument(invocation.getArguments().length - 1);
+            for (MeasurementRecord measurement : measurements) {
+                visitor.visit(measurement);
+            }
+            return null;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Answer<Void> untypedEvents(List<EventAPI> events) {
+        return invocation -> {
+            events.forEach((Consumer<EventAPI>) invocation.getArgument(2));
+            return null;
+        };
+    }
+
+    @Test
+    void testCellsAreStreamedWithoutCollectingThem() {
+        doAnswer(visit(new MeasurementRecord("Chn0001", 1L, 59, 90), new MeasurementRecord(TEST_CELL_ID, 2L, 35, 80)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(anyLong(), anyLong(), any(), any());
+        List<String> cells = new ArrayList<>();
+
+        int itemsLength = pmService.streamAggregatedPMDataForTimeInterval(10, 10, OffsetDateTime.now(),
+                pmData -> cells.add(pmData.getCellId()));
+
+        assertThat(itemsLength).isEqualTo(2);
+        assertThat(cells).containsExactly(TEST_CELL_ID, "Chn0001");
+    }
+
+    @Test
+    void testCellsAndMetricsAreFiltered() {
+        MeasurementFilter filter = MeasurementFilter.builder().cellIds(Set.of(TEST_CELL_ID)).metrics(Set.of("latency")).build();
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, 1L, 35, 80), new MeasurementRecord("Chn0001", 2L, 59, 90)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(anyLong(), anyLong(), eq(filter), any());
+        List<PMData> cells = new ArrayList<>();
+
+        int itemsLength = pmService.streamAggregatedPMDataForTimeInterval(10, 10, OffsetDateTime.now(), filter, cells::add);
+
+        assertThat(itemsLength).isOne();
+        assertThat(cells.get(0).getCellId()).isEqualTo(TEST_CELL_ID);
+        assertThat(cells.get(0).getPerformance().get(0).getLatency()).isEqualTo(35);
+        assertThat(cells.get(0).getPerformance().get(0).getThroughput()).isNull();
+    }
+
+    @Test
+    void testSlotsAggregatedForFilterAreNotCached() {
+        long now = 1_600_000_000_000L;
+        AggregationProperties properties = new AggregationProperties();
+        properties.getSlotCache().setSettleTime(0);
+        PMService cachedService = new PMService(vesPersisterSql, new DataAggregationService(), parser, hotStore, rollups,
+                new AggregatedSlotCache(properties, new SimpleMeterRegistry(), () -> now));
+        OffsetDateTime startTime = OffsetDateTime.ofInstant(Instant.ofEpochMilli(now).minusSeconds(60), ZoneOffset.UTC);
+        long start = startTime.toEpochSecond() * 1_000_000;
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, start + 5_000_000L, 35, 80),
+                new MeasurementRecord("Chn0001", start + 5_000_000L, 59, 90)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(anyLong(), anyLong(), any(), any());
+        MeasurementFilter filter = MeasurementFilter.builder().cellIds(Set.of("Chn0001")).build();
+
+        List<PMData> filtered = new ArrayList<>();
+        cachedService.streamAggregatedPMDataForTimeInterval(10, 3, startTime, filter, filtered::add);
+        AggregatedPM all = cachedService.getAggregatedPMDataForTimeInterval(10, 3, startTime);
+        List<PMData> cached = new ArrayList<>();
+        cachedService.streamAggregatedPMDataForTimeInterval(10, 3, startTime, filter, cached::add);
+
+        verify(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(start + 30_000_000L), eq(filter), any());
+        verify(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(start + 30_000_000L), eq(MeasurementFilter.ALL), any());
+        verify(vesPersisterSql, times(2)).forEachMeasurementInTimeWindow(anyLong(), anyLong(), any(), any());
+        assertThat(filtered).hasSize(1);
+        assertThat(all.getItemsLength()).isEqualTo(2);
+        assertThat(cached).hasSize(1);
+        assertThat(cached.get(0).getCellId()).isEqualTo("Chn0001");
+        assertThat(cached.get(0).getPerformance().get(0).getThroughput()).isEqualTo(90);
+    }
+
+    @Test
+    void testOpenSlotsAreMergedWithCachedSlotsPerCell() {
+        long now = 1_600_000_000_000L;
+        AggregationProperties properties = new AggregationProperties();
+        properties.getSlotCache().setSettleTime(0);
+        PMService cachedService = new PMService(vesPersisterSql, new DataAggregationService(), parser, hotStore, rollups,
+                new AggregatedSlotCache(properties, new SimpleMeterRegistry(), () -> now));
+        OffsetDateTime startTime = OffsetDateTime.ofInstant(Instant.ofEpochMilli(now).minusSeconds(20), ZoneOffset.UTC);
+        long start = startTime.toEpochSecond() * 1_000_000;
+        doAnswer(visit(new MeasurementRecord("Chn0001", start + 5_000_000L, 59, 90),
+                new MeasurementRecord("Chn0002", start + 15_000_000L, 40, 85)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(start + 20_000_000L), any(), any());
+        doAnswer(visit(new MeasurementRecord(TEST_CELL_ID, start + 25_000_000L, 35, 80),
+                new MeasurementRecord("Chn0002", start + 25_000_000L, 45, 75)))
+                .when(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start + 20_000_000L), eq(start + 30_000_000L), any(), any());
+        cachedService.getAggregatedPMDataForTimeInterval(10, 3, startTime);
+
+        AggregatedCells cells = cachedService.readAggregatedPMDataForTimeInterval(10, 3, startTime, MeasurementFilter.ALL);
+        verify(vesPersisterSql, times(2)).forEachMeasurementInTimeWindow(eq(start + 20_000_000L), eq(start + 30_000_000L), any(), any());
+        List<PMData> pmData = new ArrayList<>();
+        cells.forEach(pmData::add);
+
+        verify(vesPersisterSql).forEachMeasurementInTimeWindow(eq(start), eq(start + 20_000_000L), any(), any());
+        assertThat(pmData).extracting(PMData::getCellId).containsExactly(TEST_CELL_ID, "Chn0001", "Chn0002");
+        assertThat(pmData.get(0).getPerformance()).extracting(PerformanceData::getLatency).containsExactly(null, null, 35);
+        assertThat(pmData.get(1).getPerformance()).extracting(PerformanceData::getLatency).containsExactly(59, null, null);
+        assertThat(pmData.get(2).getPerformance()).extracting(PerformanceData::getLatency).containsExactly(null, 40, 45);
+    }
+
+    @Test
+    void testWindowStartIsAlignedToSlotWithSlotCache() {
+        OffsetDateTime startTime = OffsetDateTime.parse("2021-03-31T15:00:07.5+02:00");
+
+        assertThat(pmService.getWindow(10, 1, startTime).getStartTime()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:07Z"));
+        doReturn(true).when(slotCache).isEnabled();
+        assertThat(pmService.getWindow(10, 1, startTime).getStartTime()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:00Z"));
+    }
+
+    @Test
+    void testWindowCursorIsOldestSlotNotCompleted() {
+        OffsetDateTime startTime = OffsetDateTime.parse("2021-03-31T13:00:00Z");
+        doReturn(toMicros("2021-03-31T13:00:12Z")).when(slotCache).completedUpTo();
+
+        SlotWindow window = pmService.getWindow(10, 3, startTime);
+
+        assertThat(window.getStartTime()).isEqualTo(startTime);
+        assertThat(window.getCount()).isEqualTo(3);
+        assertThat(window.getCursor()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:10Z"));
+        doReturn(toMicros("2021-03-31T14:00:00Z")).when(slotCache).completedUpTo();
+        assertThat(pmService.getWindow(10, 3, startTime).getCursor()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:30Z"));
+    }
+
+    @Test
+    void testWindowSinceCursorEndsWithCurrentSlot() {
+        PMService clockedService = new PMService(vesPersisterSql, aggregationService, parser, hotStore, rollups, slotCache,
+                () -> Instant.parse("2021-03-31T13:00:25Z").toEpochMilli());
+        doReturn(toMicros("2021-03-31T13:00:12Z")).when(slotCache).completedUpTo();
+
+        SlotWindow window = clockedService.getWindowSince(10, 5, OffsetDateTime.parse("2021-03-31T15:00:10+02:00"));
+        assertThat(window.getStartTime()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:10Z"));
+        assertThat(window.getCount()).isEqualTo(2);
+        assertThat(window.getCursor()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:10Z"));
+
+        window = clockedService.getWindowSince(10, 3, OffsetDateTime.parse("2021-03-31T12:00:00Z"));
+        assertThat(window.getStartTime()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:00Z"));
+        assertThat(window.getCount()).isEqualTo(3);
+
+        window = clockedService.getWindowSince(10, 3, OffsetDateTime.parse("2021-03-31T14:00:00Z"));
+        assertThat(window.getStartTime()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:20Z"));
+        assertThat(window.getCount()).isOne();
+        assertThat(window.getCursor()).isEqualTo(OffsetDateTime.parse("2021-03-31T13:00:20Z"));
+    }
+
+    private static long toMicros(String time) {
+        return Instant.parse(time).toEpochMilli() * 1000;
+    }
+
     /**
      * List of EventApi to simulate query to sql
      *
@@ -85,6 +430,7 @@ class PMServiceTest {
      */
     protected List<Event> getTestEvents() {
         return asList(Event.of(CommonEventHeader.builder()
+                        .lastEpochMicrosec(1L)
                         .build(), MeasurementFields.builder()
                         .additionalMeasurements(asList(AdditionalMeasurements.builder()
                                         .withEventId(1L)
@@ -99,6 +445,7 @@ class PMServiceTest {
                         )
                         .build()),
                 Event.of(CommonEventHeader.builder()
+                        .lastEpochMicrosec(2L)
                         .build(), MeasurementFields.builder()
                         .additionalMeasurements(asList(AdditionalMeasurements.builder()
                                         .withEventId(1L)
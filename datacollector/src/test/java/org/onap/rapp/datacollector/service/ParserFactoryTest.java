@@ -55,6 +55,18 @@ class ParserFactoryTest {
         verify(vesParser, times(1)).parse(anyString());
     }
 
+    @Test
+    void testEventTypeBehindSniffLimitIsFound() {
+        String padding = "x".repeat(ParserAbstractClass.EVENT_TYPE_SNIFF_LIMIT);
+        parserFactory.getParsedEvents("{\"padding\":\"" + padding + "\",\"event\":{\"measurementFields\":{}}}");
+        verify(vesParser, times(1)).parse(anyString());
+    }
+
+    @Test
+    void testMalformedJson() {
+        assertThatExceptionOfType(JsonParseException.class).isThrownBy(() -> parserFactory.getParsedEvents("{\"event\":"));
+    }
+
     @Test
     void testUnspportedJson() {
         String emptyEvent = getEmptyEvent();
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.EventTest;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class VesBatchWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement eventStatement;
+
+    @Mock
+    private PreparedStatement fieldsStatement;
+
+    @Mock
+    private PreparedStatement measurementStatement;
+
+    @Mock
+    private PreparedStatement valueStatement;
+
+    @Mock
+    private PreparedStatement rollupStatement;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet generatedKeys;
+
+    private DatabaseProperties databaseProperties;
+
+    private VesBatchWriter writer;
+
+    @BeforeEach
+    public void init() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> ((ConnectionCallback<?>) invocation.getArgument(0)).doInConnection(connection));
+        when(connection.prepareStatement(VesBatchWriter.INSERT_EVENT, Statement.RETURN_GENERATED_KEYS)).thenReturn(eventStatement);
+        when(connection.prepareStatement(VesBatchWriter.INSERT_MEASUREMENT_FIELDS)).thenReturn(fieldsStatement);
+        when(connection.prepareStatement(VesBatchWriter.INSERT_ADDITIONAL_MEASUREMENT)).thenReturn(measurementStatement);
+        when(connection.prepareStatement(VesBatchWriter.INSERT_ADDITIONAL_MEASUREMENT_VALUE)).thenReturn(valueStatement);
+        when(connection.prepareStatement(MetricRollupRepository.UPSERT_ROLLUP)).thenReturn(rollupStatement);
+        when(connection.createStatement()).thenReturn(statement);
+        when(eventStatement.getGeneratedKeys()).thenReturn(generatedKeys);
+        when(generatedKeys.next()).thenReturn(true, true, false);
+        when(generatedKeys.getLong(1)).thenReturn(11L, 12L);
+        databaseProperties = new DatabaseProperties();
+        writer = new VesBatchWriter(jdbcTemplate, databaseProperties, new MetricRollupRepository(jdbcTemplate, databaseProperties));
+    }
+
+    @Test
+    void whenInsertedThenRowsAreBatchedPerTable() throws SQLException {
+        List<Event> events = List.of(EventTest.createDumyEvent(), EventTest.createDumyEvent());
+        int measurements = events.get(0).getMeasurementFields().getAdditionalMeasurements().size();
+        int values = events.get(0).getMeasurementFields().getAdditionalMeasurements().stream()
+                .mapToInt(measurement -> measurement.getValues().size()).sum();
+
+        writer.insert(events);
+
+        assertEquals(Long.valueOf(11L), events.get(0).getId());
+        assertEquals(Long.valueOf(12L), events.get(1).getId());
+        verify(eventStatement, times(2)).addBatch();
+        verify(eventStatement, times(2)).setBoolean(21, false);
+        verify(eventStatement, times(1)).executeBatch();
+        verify(fieldsStatement, times(2)).addBatch();
+        verify(measurementStatement, times(2 * measurements)).addBatch();
+        verify(valueStatement, times(2 * values)).addBatch();
+        verify(valueStatement, times(1)).executeBatch();
+        long lastEpochMicrosec = events.get(0).getCommonEventHeader().getLastEpochMicrosec();
+        verify(fieldsStatement, times(2)).setObject(3, lastEpochMicrosec, Types.BIGINT);
+        verify(measurementStatement, times(2 * measurements)).setObject(4, lastEpochMicrosec, Types.BIGINT);
+        verify(valueStatement, times(2 * values)).setObject(7, lastEpochMicrosec, Types.BIGINT);
+        verify(statement, never()).execute(anyString());
+        verify(connection, never()).prepareStatement(MetricRollupRepository.UPSERT_ROLLUP);
+    }
+
+    @Test
+    void whenEventsHaveTypedColumnsThenRollupsAreUpdatedOncePerSlot() throws SQLException {
+        List<Event> events = List.of(EventTest.createDumyEvent(), EventTest.createDumyEvent());
+        events.forEach(event -> {
+            event.cellId = "Cell1";
+            event.latency = 10;
+            event.throughput = 20;
+        });
+
+        writer.insert(events);
+
+        verify(rollupStatement, times(2)).addBatch();
+        verify(rollupStatement, times(2)).setLong(5, 2L);
+        verify(rollupStatement, times(1)).executeBatch();
+    }
+
+    @Test
+    void whenBulkLoadIsEnabledThenChecksAreRestored() throws SQLException {
+        databaseProperties.setBulkLoad(true);
+
+        writer.insert(List.of(EventTest.createDumyEvent(), EventTest.createDumyEvent()));
+
+        verify(statement).execute("SET SESSION foreign_key_checks = 0, unique_checks = 0");
+        verify(statement).execute("SET SESSION foreign_key_checks = 1, unique_checks = 1");
+    }
+
+    @Test
+    void whenNothingToInsertThenDatabaseIsNotReached() {
+        JdbcTemplate template = mock(JdbcTemplate.class);
+        new VesBatchWriter(template, databaseProperties, new MetricRollupRepository(template, databaseProperties)).insert(List.of());
+        verify(template, never()).execute(any(ConnectionCallback.class));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.onap.rapp.datacollector.TestHelpers.getTestEventFromFile;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VesEventDeduplicatorTest {
+
+    private static final long WINDOW = 60_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private IngestProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private VesEventDeduplicator deduplicator;
+
+    @BeforeEach
+    public void init() {
+        properties = new IngestProperties();
+        properties.getDeduplication().setWindow(WINDOW);
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new VesEventDeduplicator(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void whenEventIsSeenAgainThenItIsDuplicate() {
+        String event = getTestEventFromFile("/sample-ves.json");
+
+        assertFalse(deduplicator.isDuplicate(event));
+        assertTrue(deduplicator.isDuplicate(event));
+        assertFalse(deduplicator.isDuplicate(getTestEventFromFile("/sample-fileready.txt")));
+        assertEquals(1, meterRegistry.get("ves.ingest.duplicates").counter().count());
+    }
+
+    @Test
+    void whenWindowHasPassedThenEventIsNotDuplicate() {
+        assertFalse(deduplicator.isDuplicateIdentity("s|e|1"));
+        clock.addAndGet(WINDOW / 2);
+        assertTrue(deduplicator.isDuplicateIdentity("s|e|1"));
+        clock.addAndGet(WINDOW + 1);
+        assertFalse(deduplicator.isDuplicateIdentity("s|e|1"));
+    }
+
+    @Test
+    void whenRedeliveredJustBeforeWindowEndsThenEventIsDuplicate() {
+        clock.addAndGet(WINDOW - 1);
+        assertFalse(deduplicator.isDuplicateIdentity("s|e|1"));
+        clock.addAndGet(WINDOW);
+        assertTrue(deduplicator.isDuplicateIdentity("s|e|1"));
+    }
+
+    @Test
+    void whenRawEventIsForgottenThenItIsNotDuplicate() {
+        String event = getTestEventFromFile("/sample-ves.json");
+
+        assertFalse(deduplicator.isDuplicate(event));
+        deduplicator.forget(event);
+        assertFalse(deduplicator.isDuplicate(event));
+        assertTrue(deduplicator.isDuplicate(event));
+    }
+
+    @Test
+    void whenParsedEventIsForgottenThenItIsNotDuplicate() {
+        String event = getTestEventFromFile("/sample-ves.json");
+        CommonEventHeader header = CommonEventHeader.builder()
+                .sourceName("ibcx0001vm002ssc001")
+                .eventId("measurement0000259")
+                .sequence(3)
+                .build();
+
+        assertFalse(deduplicator.isDuplicate(event));
+        deduplicator.forget(header);
+        assertFalse(deduplicator.isDuplicate(event));
+    }
+
+    @Test
+    void whenExactLruHasEvictedIdentityThenEventIsNotDropped() {
+        properties.getDeduplication().setExactSize(1);
+        deduplicator = new VesEventDeduplicator(properties, meterRegistry, clock::get);
+
+        assertFalse(deduplicator.isDuplicateIdentity("s|e|1"));
+        assertFalse(deduplicator.isDuplicateIdentity("s|e|2"));
+        assertFalse(deduplicator.isDuplicateIdentity("s|e|1"));
+    }
+
+    @Test
+    void whenDisabledThenNothingIsDuplicate() {
+        properties.getDeduplication().setEnabled(false);
+        String event = getTestEventFromFile("/sample-ves.json");
+
+        assertFalse(deduplicator.isDuplicate(event));
+        assertFalse(deduplicator.isDuplicate(event));
+    }
+
+    @Test
+    void identityIsReadFromCommonEventHeader() {
+        assertEquals(Optional.of("ibcx0001vm002ssc001|measurement0000259|3"),
+                VesEventDeduplicator.sniffIdentity(getTestEventFromFile("/sample-ves.json")));
+        assertEquals(Optional.empty(), VesEventDeduplicator.sniffIdentity("{\"event\":{}}"));
+        assertEquals(Optional.empty(), VesEventDeduplicator.sniffIdentity("{\"event\":"));
+    }
+}
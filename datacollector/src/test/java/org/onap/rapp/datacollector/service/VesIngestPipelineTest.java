@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.EventTest;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VesIngestPipelineTest {
+
+    @Mock
+    private ParserFactory parser;
+
+    @Mock
+    private VesPersister persister;
+
+    private UEHolder ueHolder;
+
+    private IngestProperties properties;
+
+    private VesEventDeduplicator deduplicator;
+
+    private HotMeasurementStore hotStore;
+
+    private VesIngestPipeline pipeline;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        ueHolder = new UEHolder();
+        properties = new IngestProperties();
+        deduplicator = Mockito.spy(new VesEventDeduplicator(properties, new SimpleMeterRegistry()));
+        hotStore = Mockito.spy(new HotMeasurementStore(properties));
+        pipeline = new VesIngestPipeline(parser, deduplicator, persister, ueHolder, hotStore, properties);
+        pipeline.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pipeline.isRunning()) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void whenSubmittedThenParsedAndStored() {
+        Mockito.when(parser.getParsedEvents(Mockito.any(String.class)))
+                .thenReturn(EventTest.createDumyListOfEvents());
+
+        pipeline.submit("a");
+        pipeline.submit("b");
+        pipeline.stop();
+
+        Mockito.verify(parser).getParsedEvents("a");
+        Mockito.verify(parser).getParsedEvents("b");
+        Mockito.verify(persister, Mockito.atLeastOnce()).persistAll(Mockito.any(List.class));
+    }
+
+    @Test
+    void whenSubmittedThenAlsoStoredWithUE() {
+        Mockito.when(parser.getParsedEvents(Mockito.any(String.class)))
+                .thenReturn(EventTest.createDumyListOfEventsWithUe());
+
+        pipeline.submit("a");
+        pipeline.stop();
+
+        Mockito.verify(persister, Mockito.atLeastOnce()).persistAll(Mockito.any(List.class));
+        assertEquals(ueHolder.getUes(), Set.of("emergency_samsung_01", "mobile_samsung_s10"));
+    }
+
+    @Test
+    void whenEventIsRedeliveredThenItIsParsedOnce() {
+        String event = "{\"event\":{\"commonEventHeader\":{\"eventId\":\"e1\",\"sequence\":1,\"sourceName\":\"s1\"}}}";
+        Mockito.when(parser.getParsedEvents(event)).thenReturn(EventTest.createDumyListOfEvents());
+
+        pipeline.submit(event);
+        pipeline.submit(event);
+        pipeline.stop();
+
+        Mockito.verify(parser, Mockito.times(1)).getParsedEvents(event);
+    }
+
+    @Test
+    void whenEventFailsToParseThenRedeliveryIsParsedAgain() throws InterruptedException {
+        String event = "{\"event\":{\"commonEventHeader\":{\"eventId\":\"e1\",\"sequence\":1,\"sourceName\":\"s1\"}}}";
+        Mockito.when(parser.getParsedEvents(event))
+                .thenThrow(new IllegalStateException("parse failed"))
+                .thenReturn(EventTest.createDumyListOfEvents());
+
+        CountDownLatch forgotten = countDownOnForget(event);
+
+        pipeline.submit(event);
+        assertTrue(forgotten.await(5, TimeUnit.SECONDS));
+        pipeline.submit(event);
+        pipeline.stop();
+
+        Mockito.verify(parser, Mockito.times(2)).getParsedEvents(event);
+        Mockito.verify(persister, Mockito.atLeastOnce()).persistAll(Mockito.any(List.class));
+    }
+
+    @Test
+    void whenEventFailsToPersistThenRedeliveryIsParsedAgain() throws InterruptedException {
+        Event parsed = EventTest.createDumyEvent();
+        CommonEventHeader header = parsed.getCommonEventHeader();
+        String event = String.format("{\"event\":{\"commonEventHeader\":{\"eventId\":\"%s\",\"sequence\":%d,\"sourceName\":\"%s\"}}}",
+                header.getEventId(), header.getSequence(), header.getSourceName());
+        Mockito.when(parser.getParsedEvents(event)).thenReturn(List.of(parsed));
+        Mockito.doThrow(new IllegalStateException("persist failed")).doNothing()
+                .when(persister).persistAll(Mockito.any(List.class));
+        CountDownLatch forgotten = countDownOnForget(header);
+
+        pipeline.submit(event);
+        assertTrue(forgotten.await(5, TimeUnit.SECONDS));
+        pipeline.submit(event);
+        pipeline.stop();
+
+        Mockito.verify(parser, Mockito.times(2)).getParsedEvents(event);
+        Mockito.verify(hotStore, Mockito.times(1)).add(Mockito.any(Event.class));
+    }
+
+    @Test
+    void whenPersistFailsThenCommittedEventsAreNotForgotten() throws InterruptedException {
+        Event committed = EventTest.createDumyEvent();
+        Event rolledBack = EventTest.createDumyEvent();
+        Mockito.when(parser.getParsedEvents("a")).thenReturn(List.of(committed, rolledBack));
+        Mockito.doAnswer(invocation -> {
+            committed.setId(1L);
+            throw new IllegalStateException("persist failed");
+        }).when(persister).persistAll(Mockito.any(List.class));
+        properties.getPersist().setBatchSize(2);
+        CountDownLatch forgotten = countDownOnForget(rolledBack.getCommonEventHeader());
+
+        pipeline.submit("a");
+        assertTrue(forgotten.await(5, TimeUnit.SECONDS));
+        pipeline.stop();
+
+        Mockito.verify(deduplicator, Mockito.times(1)).forget(Mockito.any(CommonEventHeader.class));
+    }
+
+    /**
+     * Counts down once the pipeline has forgotten the event, the redelivery is not taken as duplicate from then on
+     */
+    private CountDownLatch countDownOnForget(String rawEvent) {
+        CountDownLatch forgotten = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            invocation.callRealMethod();
+            forgotten.countDown();
+            return null;
+        }).when(deduplicator).forget(rawEvent);
+        return forgotten;
+    }
+
+    private CountDownLatch countDownOnForget(CommonEventHeader header) {
+        CountDownLatch forgotten = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            invocation.callRealMethod();
+            forgotten.countDown();
+            return null;
+        }).when(deduplicator).forget(header);
+        return forgotten;
+    }
+
+    @Test
+    void whenStoppedThenSubmitIsRejected() {
+        pipeline.stop();
+        assertThrows(IllegalStateException.class, () -> pipeline.submit("a"));
+    }
+
+    @Test
+    void whenQueueIsAboveSaturationThenPipelineIsSaturated() {
+        pipeline.stop();
+        properties.getParse().setQueueCapacity(2);
+        properties.setSaturationPercent(50);
+        pipeline = new VesIngestPipeline(parser, deduplicator, persister, ueHolder, hotStore, properties);
+        assertFalse(pipeline.isSaturated());
+
+        pipeline.submit("a");
+        assertTrue(pipeline.isSaturated());
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static java.util.Objects.nonNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.VES_EVENT_UNIQUE_ELEMENT;
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.getEventJsonObject;
+import static org.onap.rapp.datacollector.service.ParserAbstractClass.getHeaderJsonObject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
+import org.onap.rapp.datacollector.entity.ves.CommonEventHeader;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.MeasurementFields;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+/**
+ * Compares throughput and allocation of the streaming VES adapter against the former tree based deserializer.
+ * Run with: mvn test -Dtest=VesParserBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VesParserBenchmark {
+
+    private static final int ADDITIONAL_MEASUREMENTS = 200;
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private final Gson streamingGson = new GsonBuilder()
+            .registerTypeAdapter(Event.class, new VesEventTypeAdapter().nullSafe()).create();
+    private final Gson treeGson = new GsonBuilder()
+            .registerTypeAdapter(Event.class, new TreeVesEventDeserializer()).create();
+
+    @Test
+    void compareStreamingAdapterWithTreeDeserializer() {
+        String event = createEvent();
+        assertEquals(treeGson.fromJson(event, Event.class).toString(), streamingGson.fromJson(event, Event.class).toString());
+
+        run("tree", treeGson, event, WARMUP_ITERATIONS);
+        run("streaming", streamingGson, event, WARMUP_ITERATIONS);
+        Result tree = run("tree", treeGson, event, ITERATIONS);
+        Result streaming = run("streaming", streamingGson, event, ITERATIONS);
+        System.out.printf("tree:      %,10.0f events/s %,10d bytes/event%n", tree.eventsPerSecond, tree.bytesPerEvent);
+        System.out.printf("streaming: %,10.0f events/s %,10d bytes/event%n", streaming.eventsPerSecond, streaming.bytesPerEvent);
+    }
+
+    private Result run(String name, Gson gson, String event, int iterations) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long measurements = 0;
+        for (int i = 0; i < iterations; i++) {
+            measurements += gson.fromJson(event, Event.class).measurementFields.getAdditionalMeasurements().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertEquals((long) iterations * ADDITIONAL_MEASUREMENTS, measurements, name);
+        return new Result(iterations * 1e9 / elapsed, allocated / iterations);
+    }
+
+    private static String createEvent() {
+        StringBuilder event = new StringBuilder("{\"event\":{\"commonEventHeader\":{\"version\":\"4.0.1\",\"domain\":\"measurement\","
+                + "\"eventName\":\"Measurement_vIsbcMmc\",\"eventId\":\"measurement0000259\",\"sequence\":3,\"priority\":\"Normal\","
+                + "\"sourceName\":\"ibcx0001vm002ssc001\",\"startEpochMicrosec\":1413378172000000,"
+                + "\"lastEpochMicrosec\":1413378172000000,\"timeZoneOffset\":\"UTC-05:30\"},"
+                + "\"measurementFields\":{\"measurementInterval\":5,\"measurementFieldsVersion\":\"4.0\",\"additionalMeasurements\":[");
+        for (int i = 0; i < ADDITIONAL_MEASUREMENTS; i++) {
+            if (i > 0) {
+                event.append(',');
+            }
+            event.append("{\"name\":\"UE-").append(i).append("\",\"hashMap\":{\"latency\":\"")
+                    .append(i % 100).append("\",\"throughput\":\"").append(i * 10).append("\"}}");
+        }
+        return event.append("]}}}").toString();
+    }
+
+    private static class Result {
+
+        private final double eventsPerSecond;
+        private final long bytesPerEvent;
+
+        private Result(double eventsPerSecond, long bytesPerEvent) {
+            this.eventsPerSecond = eventsPerSecond;
+            this.bytesPerEvent = bytesPerEvent;
+        }
+    }
+
+    /**
+     * Tree based deserializer formerly used by VesParserImpl, kept as the baseline of the benchmark
+     */
+    private static class TreeVesEventDeserializer implements JsonDeserializer<Event> {
+
+        private static class AdditionalMeasurementsRawValue {
+
+            String name;
+            Map<String, String> hashMap;
+        }
+
+        @Override
+        public Event deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
+            Optional<JsonObject> eventJsonObject = getEventJsonObject(jsonElement);
+            CommonEventHeader header = getHeaderJsonObject(eventJsonObject.orElse(null), jsonDeserializationContext);
+
+            Optional<MeasurementFields> measurementFields;
+            List<AdditionalMeasurements> additionalMeasurements = new ArrayList<>();
+
+            Optional<JsonObject> vesEventJson = getVesEventJson(eventJsonObject.orElse(null));
+            if (vesEventJson.isPresent()) {
+                measurementFields = Optional.ofNullable(jsonDeserializationContext.deserialize(vesEventJson.get(), MeasurementFields.class));
+                if (vesEventJson.get().has("additionalMeasurements")) {
+                    JsonArray additionalMeasurementsArray = vesEventJson.get().getAsJsonArray("additionalMeasurements");
+                    additionalMeasurements = new ArrayList<>();
+                    for (int i = 0; i < additionalMeasurementsArray.size(); i++) {
+                        AdditionalMeasurementsRawValue tmp = jsonDeserializationContext
+                                .deserialize(additionalMeasurementsArray.get(i).getAsJsonObject(), AdditionalMeasurementsRawValue.class);
+                        additionalMeasurements.add(AdditionalMeasurements.builder()
+                                .withName(tmp.name)
+                                .withHashMap(tmp.hashMap)
+                                .build());
+                    }
+                }
+                measurementFields = Optional.of(MeasurementFields.builder()
+                        .measurementInterval(measurementFields.orElse(MeasurementFields.EMPTY).measurementInterval)
+                        .additionalMeasurements(additionalMeasurements)
+                        .build());
+                return Event.of(header, measurementFields.get());
+            } else {
+                throw new JsonParseException("MeasurementFields was not found");
+            }
+        }
+
+        private Optional<JsonObject> getVesEventJson(JsonObject obj) {
+            return Optional.ofNullable(nonNull(obj) ? obj.getAsJsonObject(VES_EVENT_UNIQUE_ELEMENT) : null);
+        }
+    }
+}
@@ -15,13 +15,20 @@
 package org.onap.rapp.datacollector.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 import static org.onap.rapp.datacollector.TestHelpers.getEmptyEvent;
 import static org.onap.rapp.datacollector.TestHelpers.getTestEventFromFile;
 
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurementValues;
+import org.onap.rapp.datacollector.entity.ves.AdditionalMeasurements;
 import org.onap.rapp.datacollector.entity.ves.Event;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
 
 public class VesParserImplTest {
@@ -45,6 +52,37 @@ public class VesParserImplTest {
         assertEquals("UTC-05:30", actual.commonEventHeader.timeZoneOffset);
     }
 
+    @Test
+    public void testParsingMeasurementFields() {
+        Event actual = parser.parse(testVesContent).get(0);
+        assertEquals(5, actual.measurementFields.getMeasurementInterval());
+        assertEquals(1, actual.measurementFields.getAdditionalMeasurements().size());
+        AdditionalMeasurements additionalMeasurements = actual.measurementFields.getAdditionalMeasurements().get(0);
+        assertEquals("UE-1", additionalMeasurements.getName());
+        assertEquals(List.of(AdditionalMeasurementValues.of("UE-1", "latency", "20"),
+                AdditionalMeasurementValues.of("UE-1", "throughput", "100")), additionalMeasurements.getValues());
+        assertEquals(testVesContent, actual.raw);
+    }
+
+    @Test
+    public void parseWithoutMeasurementFields() {
+        JsonParseException exception = assertThrows(JsonParseException.class,
+                () -> parser.parse("{\"event\":{\"commonEventHeader\":{\"eventId\":\"id\"}}}"));
+        assertEquals("MeasurementFields was not found", exception.getMessage());
+    }
+
+    @Test
+    public void writtenEventIsParsedBack() {
+        Gson gson = new GsonBuilder().registerTypeAdapter(Event.class, new VesEventTypeAdapter().nullSafe()).create();
+        Event event = parser.parse(testVesContent).get(0);
+
+        Event actual = parser.parse(gson.toJson(event, Event.class)).get(0);
+
+        assertEquals(event.commonEventHeader, actual.commonEventHeader);
+        assertEquals(event.measurementFields, actual.measurementFields);
+        assertEquals("null", gson.toJson(null, Event.class));
+    }
+
     @Test(expected = JsonParseException.class)
     public void parseEmpty() {
         parser.parse(getEmptyEvent());
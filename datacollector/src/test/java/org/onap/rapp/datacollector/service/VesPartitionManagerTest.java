@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class VesPartitionManagerTest {
+
+    private static final long NOW = Instant.parse("2021-03-10T12:30:00Z").toEpochMilli();
+    private static final long MAR_10 = 1615334400000000L;
+    private static final long MAR_11 = 1615420800000000L;
+    private static final long MAR_12 = 1615507200000000L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DatabaseProperties properties;
+
+    private VesPartitionManager manager;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        properties = new DatabaseProperties();
+        properties.getPartitioning().setPrecreate(1);
+        properties.getPartitioning().setRetention(1);
+        manager = new VesPartitionManager(jdbcTemplate, properties, () -> NOW);
+    }
+
+    @Test
+    void whenOnlyFuturePartitionExistsThenCurrentAndNextPartitionsAreCreatedInEveryTable() {
+        mockPartitions(new VesPartitionManager.Partition(VesPartitionManager.FUTURE_PARTITION, "MAXVALUE"));
+
+        manager.maintainPartitions();
+
+        VesPartitionManager.TABLES.forEach(table -> Mockito.verify(jdbcTemplate).execute(
+                String.format(VesPartitionManager.CREATE_PARTITIONS, table,
+                        "PARTITION p20210310 VALUES LESS THAN (" + MAR_11 + "), "
+                                + "PARTITION p20210311 VALUES LESS THAN (" + MAR_12 + ")")));
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(anyString(), anyLong());
+    }
+
+    @Test
+    void whenHistoryPartitionExistsThenPartitionsAreCreatedAfterIt() {
+        mockPartitions(new VesPartitionManager.Partition("p_history", String.valueOf(MAR_10 + 1)),
+                new VesPartitionManager.Partition(VesPartitionManager.FUTURE_PARTITION, "MAXVALUE"));
+
+        manager.maintainPartitions();
+
+        Mockito.verify(jdbcTemplate).execute(String.format(VesPartitionManager.CREATE_PARTITIONS,
+                VesPartitionManager.EVENT_TABLE, "PARTITION p20210310 VALUES LESS THAN (" + MAR_11 + "), "
+                        + "PARTITION p20210311 VALUES LESS THAN (" + MAR_12 + ")"));
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(anyString(), anyLong());
+    }
+
+    @Test
+    void whenPartitionsAreUpToDateThenNothingIsCreatedOrDropped() {
+        mockPartitions(new VesPartitionManager.Partition("p20210309", String.valueOf(MAR_10)),
+                new VesPartitionManager.Partition("p20210310", String.valueOf(MAR_11)),
+                new VesPartitionManager.Partition("p20210311", String.valueOf(MAR_12)),
+                new VesPartitionManager.Partition(VesPartitionManager.FUTURE_PARTITION, "MAXVALUE"));
+
+        manager.maintainPartitions();
+
+        Mockito.verify(jdbcTemplate, Mockito.never()).execute(anyString());
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(anyString(), anyLong());
+    }
+
+    @Test
+    void whenPartitionIsOlderThanRetentionThenItIsDroppedFromEveryTable() {
+        long mar9 = MAR_10 - 86400000000L;
+        mockPartitions(new VesPartitionManager.Partition("p20210308", String.valueOf(mar9)),
+                new VesPartitionManager.Partition("p20210309", String.valueOf(MAR_10)),
+                new VesPartitionManager.Partition("p20210310", String.valueOf(MAR_11)),
+                new VesPartitionManager.Partition("p20210311", String.valueOf(MAR_12)),
+                new VesPartitionManager.Partition(VesPartitionManager.FUTURE_PARTITION, "MAXVALUE"));
+
+        manager.maintainPartitions();
+
+        VesPartitionManager.TABLES.forEach(table -> Mockito.verify(jdbcTemplate).execute(
+                String.format(VesPartitionManager.DROP_PARTITIONS, table, "p20210308")));
+        Mockito.verify(jdbcTemplate).update(MetricRollupRepository.DELETE_ROLLUPS, mar9);
+        Mockito.verify(jdbcTemplate, Mockito.times(VesPartitionManager.TABLES.size())).execute(anyString());
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(anyString());
+    }
+
+    @Test
+    void whenTableIsNotPartitionedThenMaintenanceIsSkipped() {
+        mockPartitions(new VesPartitionManager.Partition(null, null));
+
+        manager.maintainPartitions();
+
+        Mockito.verify(jdbcTemplate, Mockito.never()).execute(anyString());
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(anyString(), anyLong());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockPartitions(VesPartitionManager.Partition... partitions) {
+        List<VesPartitionManager.Partition> result = Arrays.asList(partitions);
+        Mockito.when(jdbcTemplate.query(eq(VesPartitionManager.SELECT_PARTITIONS), any(RowMapper.class), anyString()))
+                .thenReturn(result);
+    }
+}
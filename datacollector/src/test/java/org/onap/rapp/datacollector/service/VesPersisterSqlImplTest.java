@@ -13,8 +13,16 @@
 
 package org.onap.rapp.datacollector.service;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.util.List;
+
 import org.onap.rapp.datacollector.entity.ves.Event;
 import org.onap.rapp.datacollector.entity.ves.EventTest;
+import org.onap.rapp.datacollector.entity.ves.RawPayload;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.BDDMockito;
@@ -22,6 +30,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.internal.verification.VerificationModeFactory;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
 
 @RunWith(MockitoJUnitRunner.class)
 public class VesPersisterSqlImplTest {
@@ -32,6 +45,24 @@ public class VesPersisterSqlImplTest {
     @Mock
     private SqlRepository repository;
 
+    @Mock
+    private RawPayloadRepository payloadRepository;
+
+    @Mock
+    private VesBatchWriter batchWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SqlRepositoryAPI repositoryAPI;
+
+    @Mock
+    private VesWindowReader windowReader;
+
+    @Mock
+    private DatabaseProperties databaseProperties;
+
     final Event event = EventTest.createDumyEvent();
 
     @Test
@@ -41,7 +72,95 @@ public class VesPersisterSqlImplTest {
 
         // verify
         BDDMockito
-                .verify(repository, VerificationModeFactory.times(1))
-                .save(event);
+                .verify(batchWriter, VerificationModeFactory.times(1))
+                .insert(List.of(event));
+    }
+
+    @Test
+    public void persistsSharedPayloadOnce() {
+        RawPayload payload = RawPayload.builder().withPayload("raw").build();
+        Event first = EventTest.createDumyEvent();
+        Event second = EventTest.createDumyEvent();
+        first.payload = payload;
+        second.payload = payload;
+        BDDMockito.given(payloadRepository.save(payload)).will(invocation -> {
+            payload.eventId = 7L;
+            return payload;
+        });
+
+        vesPersisterSql.persistAll(List.of(first, second));
+
+        BDDMockito
+                .verify(payloadRepository, VerificationModeFactory.times(1))
+                .save(payload);
+        assertEquals(Long.valueOf(7L), first.payloadId);
+        assertEquals(Long.valueOf(7L), second.payloadId);
+    }
+
+    @Test
+    public void sharedPayloadIsStoredAgainAfterRollback() {
+        VesPersisterSqlImpl persister = new VesPersisterSqlImpl(repository, repositoryAPI, payloadRepository, batchWriter,
+                windowReader, new NoOpTransactionManager(), databaseProperties);
+        RawPayload payload = RawPayload.builder().withPayload("raw").build();
+        Event first = EventTest.createDumyEvent();
+        Event second = EventTest.createDumyEvent();
+        first.payload = payload;
+        second.payload = payload;
+        BDDMockito.given(payloadRepository.save(payload)).will(invocation -> {
+            payload.eventId = 7L;
+            return payload;
+        });
+        BDDMockito.willThrow(new DataAccessResourceFailureException("test")).given(batchWriter).insert(List.of(first));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> persister.persistAll(List.of(first)));
+        assertNull(payload.eventId);
+
+        persister.persistAll(List.of(second));
+
+        BDDMockito
+                .verify(payloadRepository, VerificationModeFactory.times(2))
+                .save(payload);
+        assertEquals(Long.valueOf(7L), second.payloadId);
+    }
+
+    @Test
+    public void persistAllCommitsPerBatch() {
+        BDDMockito.given(databaseProperties.getBatchSize()).willReturn(2);
+        List<Event> events = List.of(EventTest.createDumyEvent(), EventTest.createDumyEvent(), EventTest.createDumyEvent());
+
+        vesPersisterSql.persistAll(events);
+
+        BDDMockito
+                .verify(batchWriter, VerificationModeFactory.times(1))
+                .insert(events.subList(0, 2));
+        BDDMockito
+                .verify(batchWriter, VerificationModeFactory.times(1))
+                .insert(events.subList(2, 3));
+        BDDMockito
+                .verify(transactionManager, VerificationModeFactory.times(2))
+                .commit(BDDMockito.any());
+    }
+
+    /**
+     * Transaction manager without a resource, runs the transaction synchronizations like a real one
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
     }
 }
\ No newline at end of file
@@ -16,25 +16,31 @@ package org.onap.rapp.datacollector.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
-import org.onap.rapp.datacollector.entity.ves.EventTest;
 import org.onap.rapp.datacollector.service.configuration.DmaapProperties;
 import org.onap.rapp.datacollector.service.configuration.DmaapRestReaderConfiguration;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -47,13 +53,7 @@ class VesRetrievalServiceTest {
     private DmaapRestReaderConfiguration config;
 
     @Mock
-    private ParserFactory parser;
-
-    @Mock
-    private VesPersister persister;
-
-    @Mock
-    UEHolder ueHolder;
+    private VesIngestPipeline pipeline;
 
     private static final List<String> TOPIC_URLS = Collections.singletonList("http://localhost/a-topic");
 
@@ -64,12 +64,9 @@ class VesRetrievalServiceTest {
         MockitoAnnotations.initMocks(this);
         Mockito.when(config.getMeasurementsTopicUrls()).thenReturn(TOPIC_URLS);
         Mockito.when(config.getDmaapProperties()).thenReturn(getTestProperties());
-        String[] response = new String[]{"a", "b"};
-
-        Mockito.when(restTemplate.exchange(getTestTopicUrl(), HttpMethod.GET, new HttpEntity<>(createTestHeaders()), String[].class))
-                .thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+        mockResponse(getTestTopicUrl(), "[\"a\", \"b\"]");
 
-        service = new VesRetrievalService(restTemplate, parser, persister, config, ueHolder);
+        service = new VesRetrievalService(restTemplate, pipeline, config, Runnable::run);
     }
 
     @Test
@@ -81,38 +78,89 @@ class VesRetrievalServiceTest {
 
     @Test
     void whenGetIsCalled_thenExceptionIsThrown() {
-        Mockito.when(restTemplate.exchange(getTestTopicUrl(), HttpMethod.GET, new HttpEntity<>(createTestHeaders()), String[].class))
+        Mockito.when(restTemplate.execute(Mockito.eq(getTestTopicUrl()), Mockito.eq(HttpMethod.GET),
+                Mockito.any(RequestCallback.class), Mockito.any(ResponseExtractor.class)))
                 .thenThrow(new RestClientException("An test exception"));
 
-        service = new VesRetrievalService(restTemplate, parser, persister, config, ueHolder);
+        service = new VesRetrievalService(restTemplate, pipeline, config, Runnable::run);
         Collection<String> actual = service.retrieveEvents();
         assertEquals(0, actual.size());
     }
 
     @Test
     void whenRetrievedThenAlsoStored() {
-        Mockito.when(parser.getParsedEvents(Mockito.any(String.class)))
-                .thenReturn(EventTest.createDumyListOfEvents());
-
-        service = new VesRetrievalService(restTemplate, parser, persister, config, ueHolder);
+        service = new VesRetrievalService(restTemplate, pipeline, config, Runnable::run);
         service.retrieveAndStoreVesEvents();
-        Mockito.verify(persister, Mockito.times(2)).persistAll(Mockito.any(List.class));
+        Mockito.verify(pipeline).submit("a");
+        Mockito.verify(pipeline).submit("b");
     }
 
     @Test
-    void whenRetrievedThenAlsoStoredWithUE() {
-        Mockito.when(parser.getParsedEvents(Mockito.any(String.class)))
-                .thenReturn(EventTest.createDumyListOfEventsWithUe());
+    void whenRetrievedThenBasicAuthIsSent() throws IOException {
+        service.retrieveEvents();
+
+        ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+        Mockito.verify(restTemplate).execute(Mockito.eq(getTestTopicUrl()), Mockito.eq(HttpMethod.GET),
+                callback.capture(), Mockito.any(ResponseExtractor.class));
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        callback.getValue().doWithRequest(request);
+        assertEquals(createTestHeaders().getFirst(HttpHeaders.AUTHORIZATION),
+                request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    }
 
-        UEHolder ueHolder = new UEHolder();
+    @Test
+    void whenEventsAreJsonObjectsThenTheyAreReadAsJson() {
+        mockResponse(getTestTopicUrl(), "[{\"event\":{\"id\":1}}, \"b\"]");
 
-        service = new VesRetrievalService(restTemplate, parser, persister, config, ueHolder);
-        service.retrieveAndStoreVesEvents();
+        assertEquals(2, service.retrieveAndStoreVesEvents(getTestTopicUrl()));
+        Mockito.verify(pipeline).submit("{\"event\":{\"id\":1}}");
+        Mockito.verify(pipeline).submit("b");
+    }
+
+    @Test
+    void whenResponseIsEmptyThenNothingIsStored() {
+        mockResponse(getTestTopicUrl(), "");
 
-        Mockito.verify(persister, Mockito.times(2)).persistAll(Mockito.any(List.class));
-        assertEquals(ueHolder.getUes(), Set.of("emergency_samsung_01", "mobile_samsung_s10"));
+        assertEquals(0, service.retrieveAndStoreVesEvents(getTestTopicUrl()));
+        Mockito.verifyNoInteractions(pipeline);
     }
 
+    @Test
+    void whenOneTopicFailsThenOtherTopicsAreStillRead() {
+        List<String> topicUrls = List.of(getTestTopicUrl(), "http://localhost/b-topic");
+        Mockito.when(config.getMeasurementsTopicUrls()).thenReturn(topicUrls);
+        Mockito.when(restTemplate.execute(Mockito.eq(topicUrls.get(1)), Mockito.eq(HttpMethod.GET),
+                Mockito.any(RequestCallback.class), Mockito.any(ResponseExtractor.class)))
+                .thenThrow(new RestClientException("An test exception"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(topicUrls.size());
+        try {
+            service = new VesRetrievalService(restTemplate, pipeline, config, executor);
+            assertEquals(Set.of("a", "b"), new HashSet<>(service.retrieveEvents()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenLongPollIsConfiguredThenTimeoutAndLimitAreSent() {
+        DmaapProperties properties = getTestProperties();
+        properties.setTimeout(15000);
+        properties.setLimit(100);
+        Mockito.when(config.getDmaapProperties()).thenReturn(properties);
+        mockResponse(getTestTopicUrl() + "?timeout=15000&limit=100", "[\"c\"]");
+
+        service = new VesRetrievalService(restTemplate, pipeline, config, Runnable::run);
+        assertEquals(1, service.retrieveAndStoreVesEvents(getTestTopicUrl()));
+        Mockito.verify(pipeline).submit("c");
+    }
+
+    private void mockResponse(String url, String body) {
+        Mockito.when(restTemplate.execute(Mockito.eq(url), Mockito.eq(HttpMethod.GET),
+                Mockito.any(RequestCallback.class), Mockito.any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> ((ResponseExtractor<?>) invocation.getArgument(3))
+                        .extractData(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK)));
+    }
 
     private DmaapProperties getTestProperties() {
         DmaapProperties dmaapProperties = new DmaapProperties();
@@ -131,4 +179,3 @@ class VesRetrievalServiceTest {
         return TOPIC_URLS.get(0);
     }
 }
-
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.onap.rapp.datacollector.entity.MeasurementFilter;
+import org.onap.rapp.datacollector.entity.ves.EventAPI;
+import org.onap.rapp.datacollector.service.configuration.DatabaseProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+class VesWindowReaderTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private VesWindowReader reader;
+
+    @BeforeEach
+    public void init() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        DatabaseProperties databaseProperties = new DatabaseProperties();
+        databaseProperties.setFetchSize(250);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+        reader = new VesWindowReader(jdbcTemplate, databaseProperties);
+    }
+
+    @Test
+    void whenMeasurementsAreReadThenRowsAreVisitedOneByOne() throws SQLException {
+        rows(2);
+        when(resultSet.getString(1)).thenReturn("Cell1", "Cell2");
+        when(resultSet.getLong(2)).thenReturn(10L, 20L);
+        when(resultSet.getInt(3)).thenReturn(35, 0);
+        when(resultSet.getInt(4)).thenReturn(80, 90);
+        when(resultSet.wasNull()).thenReturn(false, false, true, false);
+        List<String> visited = new ArrayList<>();
+
+        reader.readMeasurements(1, 100, MeasurementFilter.ALL, (cellId, timestamp, latency, throughput) ->
+                visited.add(cellId + ":" + timestamp + ":" + latency + ":" + throughput));
+
+        assertEquals(List.of("Cell1:10:35:80", "Cell2:20:" + MeasurementVisitor.MISSING + ":90"), visited);
+        verify(connection).prepareStatement(VesWindowReader.SELECT_MEASUREMENTS, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        verify(statement).setFetchSize(250);
+        verify(statement).setLong(1, 1);
+        verify(statement).setLong(2, 100);
+    }
+
+    @Test
+    void whenMeasurementsAreFilteredThenCellsAndMetricsArePushedIntoQuery() throws SQLException {
+        rows(0);
+        MeasurementFilter filter = MeasurementFilter.builder().cellIds(Set.of("Cell1")).metrics(Set.of("throughput")).build();
+
+        reader.readMeasurements(1, 100, filter, (cellId, timestamp, latency, throughput) -> {
+        });
+
+        verify(connection).prepareStatement("SELECT cell_id, last_epoch_microsec, NULL, throughput FROM ves_measurement "
+                + "WHERE last_epoch_microsec BETWEEN ? AND ? AND typed AND cell_id IS NOT NULL AND cell_id IN (?)",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        verify(statement).setString(3, "Cell1");
+    }
+
+    @Test
+    void whenUntypedEventsAreReadThenPayloadIdIsKeptOnlyIfPresent() throws SQLException {
+        rows(2);
+        when(resultSet.getLong(3)).thenReturn(5L, 0L);
+        when(resultSet.wasNull()).thenReturn(false, true);
+        when(resultSet.getLong(1)).thenReturn(1L, 2L);
+        when(resultSet.getString(2)).thenReturn("", "{}");
+        List<EventAPI> events = new ArrayList<>();
+
+        reader.readUntypedEvents(1, 100, events::add);
+
+        assertEquals(2, events.size());
+        assertEquals(5L, events.get(0).getPayloadId());
+        assertNull(events.get(1).getPayloadId());
+        assertEquals("{}", events.get(1).getRawdata());
+    }
+
+    private void rows(int count) {
+        doAnswer(invocation -> {
+            ((PreparedStatementCreator) invocation.getArgument(0)).createPreparedStatement(connection);
+            RowCallbackHandler handler = (RowCallbackHandler) invocation.getArgument(1);
+            for (int i = 0; i < count; i++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
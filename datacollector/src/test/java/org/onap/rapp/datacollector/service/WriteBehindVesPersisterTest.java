@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.datacollector.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.onap.rapp.datacollector.entity.ves.Event;
+import org.onap.rapp.datacollector.entity.ves.EventTest;
+import org.onap.rapp.datacollector.service.configuration.IngestProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WriteBehindVesPersisterTest {
+
+    @Mock
+    private VesPersister delegate;
+
+    private IngestProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private WriteBehindVesPersister persister;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+        properties = new IngestProperties();
+        properties.getWriteBehind().setFlushSize(2);
+        properties.getWriteBehind().setFlushInterval(60_000);
+        properties.getWriteBehind().setRetryBackoff(10);
+        meterRegistry = new SimpleMeterRegistry();
+        persister = new WriteBehindVesPersister(delegate, properties, meterRegistry);
+        persister.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (persister.isRunning()) {
+            persister.stop();
+        }
+    }
+
+    @Test
+    void whenFlushSizeIsReachedThenEventsAreWritten() {
+        List<Event> events = List.of(EventTest.createDumyEvent(), EventTest.createDumyEvent());
+
+        persister.persistAll(events);
+
+        Mockito.verify(delegate, Mockito.timeout(5000)).persistAll(events);
+        assertEquals(1, meterRegistry.get("ves.persist.flush").timer().count());
+    }
+
+    @Test
+    void whenStoppedThenPendingEventsAreDrained() {
+        Event event = EventTest.createDumyEvent();
+
+        persister.persists(event);
+        persister.stop();
+
+        Mockito.verify(delegate).persistAll(List.of(event));
+        assertEquals(0, persister.getPendingCount());
+        assertThrows(IllegalStateException.class, () -> persister.persists(event));
+    }
+
+    @Test
+    void whenWriteFailsThenUncommittedEventsAreRetried() {
+        Event committed = EventTest.createDumyEvent();
+        Event rolledBack = EventTest.createDumyEvent();
+        List<List<Event>> written = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            written.add(new ArrayList<>(invocation.getArgument(0)));
+            committed.setId(1L);
+            throw new TransientDataAccessResourceException("test");
+        }).doAnswer(invocation -> {
+            written.add(new ArrayList<>(invocation.getArgument(0)));
+            return null;
+        }).when(delegate).persistAll(Mockito.anyList());
+
+        persister.persistAll(List.of(committed, rolledBack));
+
+        Mockito.verify(delegate, Mockito.timeout(5000).times(2)).persistAll(Mockito.anyList());
+        assertEquals(List.of(List.of(committed, rolledBack), List.of(rolledBack)), written);
+        assertFalse(persister.isWriteFailing());
+        assertEquals(0, meterRegistry.get("ves.persist.failed").counter().count());
+    }
+
+    @Test
+    void whenWriteKeepsFailingThenEventsAreDroppedOnlyOnShutdownTimeout() {
+        properties.setShutdownTimeout(200);
+        Mockito.doThrow(new CannotGetJdbcConnectionException("test")).when(delegate).persistAll(Mockito.anyList());
+
+        persister.persistAll(List.of(EventTest.createDumyEvent(), EventTest.createDumyEvent(), EventTest.createDumyEvent()));
+
+        Mockito.verify(delegate, Mockito.timeout(5000).atLeast(2)).persistAll(Mockito.anyList());
+        assertTrue(persister.isWriteFailing());
+        persister.stop();
+
+        assertEquals(3, meterRegistry.get("ves.persist.failed").counter().count());
+        assertEquals(0, persister.getPendingCount());
+    }
+
+    @Test
+    void whenEventCannotBeWrittenThenOnlyItIsDropped() {
+        Event first = EventTest.createDumyEvent();
+        Event poison = EventTest.createDumyEvent();
+        Event third = EventTest.createDumyEvent();
+        Event fourth = EventTest.createDumyEvent();
+        properties.getWriteBehind().setFlushSize(4);
+        List<List<Event>> written = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            List<Event> events = new ArrayList<>(invocation.getArgument(0));
+            if (events.stream().anyMatch(event -> event == poison)) {
+                throw new DataIntegrityViolationException("test");
+            }
+            written.add(events);
+            return null;
+        }).when(delegate).persistAll(Mockito.anyList());
+
+        persister.persistAll(List.of(first, poison, third, fourth));
+
+        Mockito.verify(delegate, Mockito.timeout(5000).times(5)).persistAll(Mockito.anyList());
+        assertEquals(List.of(List.of(first), List.of(third, fourth)), written);
+        assertEquals(1, meterRegistry.get("ves.persist.failed").counter().count());
+        assertFalse(persister.isWriteFailing());
+    }
+
+    @Test
+    void whenReadThenDelegateIsUsed() {
+        persister.findEventsByTimeWindow(1, 2);
+        Mockito.verify(delegate).findEventsByTimeWindow(1, 2);
+    }
+}
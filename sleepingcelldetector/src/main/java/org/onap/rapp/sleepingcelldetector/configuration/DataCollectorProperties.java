@@ -27,6 +27,10 @@ public class DataCollectorProperties {
     private String version;
 
     public String getDataCollectorUrl() {
-        return String.format("%s://%s:%d/%s", protocol, host, port, version);
+        return getDataCollectorUrl(version);
+    }
+
+    public String getDataCollectorUrl(String apiVersion) {
+        return String.format("%s://%s:%d/%s", protocol, host, port, apiVersion);
     }
 }
@@ -41,6 +41,10 @@ public class SleepingCellDetectorConfiguration {
         return dataCollectorProperties.getDataCollectorUrl();
     }
 
+    public String getDataCollectorBaseUrl(String apiVersion) {
+        return dataCollectorProperties.getDataCollectorUrl(apiVersion);
+    }
+
     public String getUeFilteringPrefix(){
         return scdProperties.getPrefix();
     }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.sleepingcelldetector.entity.pm;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Aggregated metrics of the DataCollector v2 API, slot i of every cell starts at slotStart + i * slotWidth
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ColumnarPMEntity {
+
+    private String slotStart;
+    private int slotWidth;
+    private int slotCount;
+    private String cursor;
+    private List<ColumnarPMData> pm;
+    private int itemsLength;
+}
@@ -13,10 +13,7 @@
 
 package org.onap.rapp.sleepingcelldetector.service;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import org.onap.rapp.sleepingcelldetector.entity.pm.PMEntity;
+import org.onap.rapp.sleepingcelldetector.entity.pm.ColumnarPMEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -29,10 +26,13 @@ public class CellPerformanceVerifierScheduler {
 
     private final DataCollectorClient dataCollectorClient;
     private final CellPerformanceHandler cellPerformanceHandler;
+    private final CellPerformanceWindow performanceWindow;
 
-    public CellPerformanceVerifierScheduler(DataCollectorClient dataCollectorClient, CellPerformanceHandler cellPerformanceHandler) {
+    public CellPerformanceVerifierScheduler(DataCollectorClient dataCollectorClient, CellPerformanceHandler cellPerformanceHandler,
+                                            CellPerformanceWindow performanceWindow) {
         this.dataCollectorClient = dataCollectorClient;
         this.cellPerformanceHandler = cellPerformanceHandler;
+        this.performanceWindow = performanceWindow;
     }
 
     @Scheduled(fixedRateString = "${sleepingcelldetector.slot}000")
@@ -43,18 +43,12 @@ public class CellPerformanceVerifierScheduler {
 
     private void performVesEventsMeasurementVerification() {
         try {
-            PMEntity performanceData =  dataCollectorClient.getPMData();
-            Map<String, List<Map<String, Integer>>> eventsByCell = groupByCell(performanceData);
-            eventsByCell.forEach(cellPerformanceHandler::handleCellPerformance);
+            ColumnarPMEntity performanceData = dataCollectorClient.getColumnarPMData(performanceWindow.getCursor());
+            performanceWindow.update(performanceData);
+            performanceWindow.getPerformanceByCell().forEach(cellPerformanceHandler::handleCellPerformance);
         } catch (Exception e) {
             logger.error("Error occurred during events verification, message: {}", e.getMessage());
         }
     }
 
-    private Map<String, List<Map<String, Integer>>> groupByCell(PMEntity pmEntity) {
-        Map<String, List<Map<String, Integer>>> cellPerformanceMap = new HashMap<>();
-        pmEntity.getPm().forEach(pmData -> cellPerformanceMap.put(pmData.getCellId(), pmData.getPerformance()));
-        return cellPerformanceMap;
-    }
-
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.sleepingcelldetector.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.onap.rapp.sleepingcelldetector.configuration.SleepingCellDetectorConfiguration;
+import org.onap.rapp.sleepingcelldetector.entity.pm.ColumnarPMData;
+import org.onap.rapp.sleepingcelldetector.entity.pm.ColumnarPMEntity;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the latest prediction slots of every cell, so only the slots changed since the DataCollector cursor have to be
+ * fetched on every tick
+ */
+@Service
+public class CellPerformanceWindow {
+
+    public static final String LATENCY = "latency";
+    public static final String THROUGHPUT = "throughput";
+
+    private final SleepingCellDetectorConfiguration config;
+    private final Map<String, NavigableMap<Long, Map<String, Integer>>> slotsByCell = new HashMap<>();
+    private long slotWidth;
+    private long windowEnd = Long.MIN_VALUE;
+    private String cursor;
+
+    public CellPerformanceWindow(SleepingCellDetectorConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * @return cursor of the last response, null when nothing was fetched yet
+     */
+    public synchronized String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Replaces the slots covered by the response and drops the slots which left the window. Only slots with
+     * measurements are kept, so a cell without measurements left in the window is dropped like it is missing from
+     * a full aggregatedmetrics response.
+     *
+     * @param pmEntity aggregated metrics returned since the cursor
+     */
+    public synchronized void update(ColumnarPMEntity pmEntity) {
+        long width = pmEntity.getSlotWidth();
+        long start = OffsetDateTime.parse(pmEntity.getSlotStart()).toEpochSecond();
+        long end = start + width * pmEntity.getSlotCount();
+        if (width != slotWidth) {
+            slotsByCell.clear();
+            slotWidth = width;
+        }
+        slotsByCell.values().forEach(slots -> slots.subMap(start, end).clear());
+        pmEntity.getPm().forEach(cell -> {
+            NavigableMap<Long, Map<String, Integer>> slots = slotsByCell.computeIfAbsent(cell.getCellId(), id -> new TreeMap<>());
+            for (int i = 0; i < pmEntity.getSlotCount(); i++) {
+                Map<String, Integer> performance = getPerformance(cell, i);
+                if (!performance.isEmpty()) {
+                    slots.put(start + i * width, performance);
+                }
+            }
+        });
+        windowEnd = Math.max(windowEnd, end);
+        slotsByCell.values().forEach(slots -> slots.headMap(getWindowStart()).clear());
+        slotsByCell.values().removeIf(Map::isEmpty);
+        cursor = pmEntity.getCursor();
+    }
+
+    /**
+     * @return performance of every cell in the window, slots without measurements are empty
+     */
+    public synchronized Map<String, List<Map<String, Integer>>> getPerformanceByCell() {
+        Map<String, List<Map<String, Integer>>> cellPerformanceMap = new HashMap<>();
+        long windowStart = getWindowStart();
+        slotsByCell.forEach((cellId, slots) -> {
+            List<Map<String, Integer>> performance = new ArrayList<>();
+            for (int i = 0; i < config.getPredictionSlotNumber(); i++) {
+                performance.add(slots.getOrDefault(windowStart + i * slotWidth, Collections.emptyMap()));
+            }
+            cellPerformanceMap.put(cellId, performance);
+        });
+        return cellPerformanceMap;
+    }
+
+    private long getWindowStart() {
+        return windowEnd - slotWidth * config.getPredictionSlotNumber();
+    }
+
+    private static Map<String, Integer> getPerformance(ColumnarPMData cell, int slot) {
+        Map<String, Integer> performance = new HashMap<>();
+        putIfPresent(performance, LATENCY, cell.getLatency(), slot);
+        putIfPresent(performance, THROUGHPUT, cell.getThroughput(), slot);
+        return performance;
+    }
+
+    private static void putIfPresent(Map<String, Integer> performance, String metric, List<Integer> values, int slot) {
+        if (values != null && slot < values.size() && values.get(slot) != null) {
+            performance.put(metric, values.get(slot));
+        }
+    }
+}
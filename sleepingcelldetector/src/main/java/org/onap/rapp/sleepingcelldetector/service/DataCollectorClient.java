@@ -18,9 +18,15 @@ import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.List;
 import org.onap.rapp.sleepingcelldetector.configuration.SleepingCellDetectorConfiguration;
+import org.onap.rapp.sleepingcelldetector.entity.pm.ColumnarPMEntity;
 import org.onap.rapp.sleepingcelldetector.entity.pm.PMEntity;
 import org.onap.rapp.sleepingcelldetector.entity.ue.UEInfo;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -30,6 +36,12 @@ public class DataCollectorClient {
 
     public static final String AGGREGATED_METRICS_URL = "/pm/events/aggregatedmetrics";
     public static final String UES_URL = "/pm/ues";
+    public static final String COLUMNAR_API_VERSION = "v2";
+    /**
+     * Aggregated metrics are read as CBOR, JSON is still accepted from DataCollector versions without binary encodings
+     */
+    public static final List<MediaType> PM_ACCEPT = List.of(MediaType.APPLICATION_CBOR,
+            MediaType.valueOf(MediaType.APPLICATION_JSON_VALUE + ";q=0.5"));
     private final SleepingCellDetectorConfiguration config;
     private final RestTemplate restTemplate;
 
@@ -39,20 +51,44 @@ public class DataCollectorClient {
     }
 
     public PMEntity getPMData() throws UnsupportedEncodingException {
-        String dataCollectorUrl = config.getDataCollectorBaseUrl() + AGGREGATED_METRICS_URL + getQueryParams();
+        String dataCollectorUrl = config.getDataCollectorBaseUrl() + AGGREGATED_METRICS_URL + getQueryParams(null);
+        return getAggregatedMetrics(dataCollectorUrl, PMEntity.class);
+    }
+
+    /**
+     * Reads the columnar aggregated metrics of the whole prediction window or, when a cursor is given, only the slots
+     * which completed or changed since that cursor
+     *
+     * @param cursor cursor of the previous response, null for the whole window
+     * @return aggregated metrics together with the next cursor
+     */
+    public ColumnarPMEntity getColumnarPMData(String cursor) throws UnsupportedEncodingException {
+        String dataCollectorUrl = config.getDataCollectorBaseUrl(COLUMNAR_API_VERSION) + AGGREGATED_METRICS_URL
+                + getQueryParams(cursor);
+        return getAggregatedMetrics(dataCollectorUrl, ColumnarPMEntity.class);
+    }
+
+    private <T> T getAggregatedMetrics(String dataCollectorUrl, Class<T> responseType) {
         URI uri = URI.create(dataCollectorUrl);
-        ResponseEntity<PMEntity> pmEntityResponse = restTemplate.getForEntity(uri, PMEntity.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(PM_ACCEPT);
+        ResponseEntity<T> pmEntityResponse = restTemplate.exchange(uri, HttpMethod.GET,
+                new HttpEntity<>(headers), responseType);
         return pmEntityResponse.getBody();
     }
 
-    private String getQueryParams() throws UnsupportedEncodingException {
+    private String getQueryParams(String cursor) throws UnsupportedEncodingException {
         long slot = config.getPredictionTimeSlot();
         long count = config.getPredictionSlotNumber();
+        StringBuffer params = new StringBuffer().append("?slot=").append(slot)
+                .append("&count=").append(count);
+        if (cursor != null) {
+            return params.append("&since=").append(URLEncoder.encode(cursor, StandardCharsets.UTF_8.toString()))
+                    .toString();
+        }
         String time = URLEncoder.encode(OffsetDateTime.now().minusSeconds(slot * count).toString(),
                 StandardCharsets.UTF_8.toString());
-        return new StringBuffer().append("?slot=").append(slot)
-                .append("&count=").append(count)
-                .append("&startTime=").append(time)
+        return params.append("&startTime=").append(time)
                 .toString();
     }
 
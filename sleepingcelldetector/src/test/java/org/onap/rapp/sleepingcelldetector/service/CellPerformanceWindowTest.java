@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.sleepingcelldetector.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.onap.rapp.sleepingcelldetector.configuration.SleepingCellDetectorConfiguration;
+import org.onap.rapp.sleepingcelldetector.entity.pm.ColumnarPMData;
+import org.onap.rapp.sleepingcelldetector.entity.pm.ColumnarPMEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CellPerformanceWindowTest {
+
+    @Mock
+    SleepingCellDetectorConfiguration config;
+
+    CellPerformanceWindow performanceWindow;
+
+    @Before
+    public void init() {
+        Mockito.when(config.getPredictionSlotNumber()).thenReturn(3);
+        performanceWindow = new CellPerformanceWindow(config);
+    }
+
+    @Test
+    public void whenSlotsSinceCursorAreReceivedThenWindowSlidesTest() {
+        assertNull(performanceWindow.getCursor());
+        performanceWindow.update(new ColumnarPMEntity("2021-03-31T13:00:00Z", 10, 3, "2021-03-31T13:00:20Z",
+                Collections.singletonList(new ColumnarPMData("Cell1", Arrays.asList(10, 11, null), Arrays.asList(80, 81, 82))), 1));
+
+        performanceWindow.update(new ColumnarPMEntity("2021-03-31T15:00:20+02:00", 10, 2, "2021-03-31T13:00:30Z",
+                Collections.singletonList(new ColumnarPMData("Cell1", Arrays.asList(12, 13), Arrays.asList(null, 83))), 1));
+
+        assertEquals("2021-03-31T13:00:30Z", performanceWindow.getCursor());
+        List<Map<String, Integer>> performance = performanceWindow.getPerformanceByCell().get("Cell1");
+        assertEquals(3, performance.size());
+        assertEquals(Map.of("latency", 11, "throughput", 81), performance.get(0));
+        assertEquals(Map.of("latency", 12), performance.get(1));
+        assertEquals(Map.of("latency", 13, "throughput", 83), performance.get(2));
+    }
+
+    @Test
+    public void whenCellHasNoSlotsLeftInWindowThenItIsDroppedTest() {
+        performanceWindow.update(new ColumnarPMEntity("2021-03-31T13:00:00Z", 10, 1, "2021-03-31T13:00:00Z",
+                Collections.singletonList(new ColumnarPMData("Cell1", Arrays.asList(10), Arrays.asList(80))), 1));
+        performanceWindow.update(new ColumnarPMEntity("2021-03-31T13:00:10Z", 10, 3, "2021-03-31T13:00:30Z",
+                Collections.singletonList(new ColumnarPMData("Cell2", Arrays.asList(10, 11, 12), Arrays.asList(80, 81, 82))), 1));
+
+        Map<String, List<Map<String, Integer>>> performanceByCell = performanceWindow.getPerformanceByCell();
+        assertEquals(1, performanceByCell.size());
+        assertTrue(performanceByCell.containsKey("Cell2"));
+    }
+
+    @Test
+    public void whenCellHasNoMeasurementsLeftInWindowThenItIsDroppedTest() {
+        performanceWindow.update(new ColumnarPMEntity("2021-03-31T13:00:00Z", 10, 3, "2021-03-31T13:00:20Z",
+                Arrays.asList(new ColumnarPMData("Cell1", Arrays.asList(10, null, null), Arrays.asList(80, null, null)),
+                        new ColumnarPMData("Cell2", Arrays.asList(10, 11, 12), Arrays.asList(80, 81, 82))), 2));
+        performanceWindow.update(new ColumnarPMEntity("2021-03-31T13:00:20Z", 10, 2, "2021-03-31T13:00:30Z",
+                Arrays.asList(new ColumnarPMData("Cell1", Arrays.asList(null, null), Arrays.asList(null, null)),
+                        new ColumnarPMData("Cell2", Arrays.asList(12, 13), Arrays.asList(82, 83))), 2));
+
+        Map<String, List<Map<String, Integer>>> performanceByCell = performanceWindow.getPerformanceByCell();
+        assertEquals(1, performanceByCell.size());
+        assertTrue(performanceByCell.containsKey("Cell2"));
+    }
+}
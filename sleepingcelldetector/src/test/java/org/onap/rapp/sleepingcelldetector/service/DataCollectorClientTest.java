@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2021 Samsung Electronics
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package org.onap.rapp.sleepingcelldetector.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+import org.onap.rapp.sleepingcelldetector.configuration.SleepingCellDetectorConfiguration;
+import org.onap.rapp.sleepingcelldetector.entity.pm.ColumnarPMEntity;
+import org.onap.rapp.sleepingcelldetector.entity.pm.PMEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataCollectorClientTest {
+
+    @Mock
+    SleepingCellDetectorConfiguration config;
+
+    @Mock
+    RestTemplate restTemplate;
+
+    DataCollectorClient dataCollectorClient;
+
+    @Before
+    public void init() {
+        dataCollectorClient = new DataCollectorClient(config, restTemplate);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void getPMDataRequestsCborTest() throws Exception {
+        PMEntity pmEntity = new PMEntity(Collections.emptyList(), 0);
+        Mockito.when(config.getDataCollectorBaseUrl()).thenReturn("http://rapp-datacollector:8087/v1");
+        Mockito.when(config.getPredictionTimeSlot()).thenReturn(10);
+        Mockito.when(config.getPredictionSlotNumber()).thenReturn(12);
+        Mockito.when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(PMEntity.class)))
+                .thenReturn(ResponseEntity.ok(pmEntity));
+
+        assertSame(pmEntity, dataCollectorClient.getPMData());
+
+        ArgumentCaptor<HttpEntity> request = ArgumentCaptor.forClass(HttpEntity.class);
+        Mockito.verify(restTemplate).exchange(any(URI.class), eq(HttpMethod.GET), request.capture(), eq(PMEntity.class));
+        List<MediaType> accept = request.getValue().getHeaders().getAccept();
+        assertEquals(MediaType.APPLICATION_CBOR, accept.get(0));
+        assertEquals(0.5, accept.get(1).getQualityValue(), 0);
+        assertEquals(MediaType.APPLICATION_JSON.getSubtype(), accept.get(1).getSubtype());
+    }
+
+    @Test
+    public void getColumnarPMDataSinceCursorTest() throws Exception {
+        ColumnarPMEntity pmEntity = new ColumnarPMEntity("2021-03-31T13:00:10Z", 10, 1, "2021-03-31T13:00:10Z",
+                Collections.emptyList(), 0);
+        Mockito.when(config.getDataCollectorBaseUrl("v2")).thenReturn("http://rapp-datacollector:8087/v2");
+        Mockito.when(config.getPredictionTimeSlot()).thenReturn(10);
+        Mockito.when(config.getPredictionSlotNumber()).thenReturn(12);
+        Mockito.when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(ColumnarPMEntity.class)))
+                .thenReturn(ResponseEntity.ok(pmEntity));
+
+        assertSame(pmEntity, dataCollectorClient.getColumnarPMData("2021-03-31T13:00:00+02:00"));
+
+        ArgumentCaptor<URI> uri = ArgumentCaptor.forClass(URI.class);
+        Mockito.verify(restTemplate).exchange(uri.capture(), eq(HttpMethod.GET), any(HttpEntity.class), eq(ColumnarPMEntity.class));
+        assertEquals("http://rapp-datacollector:8087/v2/pm/events/aggregatedmetrics?slot=10&count=12"
+                + "&since=2021-03-31T13%3A00%3A00%2B02%3A00", uri.getValue().toString());
+    }
+
+    @Test
+    public void getColumnarPMDataWithoutCursorTest() throws Exception {
+        Mockito.when(config.getDataCollectorBaseUrl("v2")).thenReturn("http://rapp-datacollector:8087/v2");
+        Mockito.when(config.getPredictionTimeSlot()).thenReturn(10);
+        Mockito.when(config.getPredictionSlotNumber()).thenReturn(12);
+        Mockito.when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(ColumnarPMEntity.class)))
+                .thenReturn(ResponseEntity.ok(new ColumnarPMEntity()));
+
+        dataCollectorClient.getColumnarPMData(null);
+
+        ArgumentCaptor<URI> uri = ArgumentCaptor.forClass(URI.class);
+        Mockito.verify(restTemplate).exchange(uri.capture(), eq(HttpMethod.GET), any(HttpEntity.class), eq(ColumnarPMEntity.class));
+        assertTrue(uri.getValue().toString().contains("?slot=10&count=12&startTime="));
+    }
+}